@@ -25,27 +25,55 @@ import javax.servlet.ServletResponse;
 
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.propertytypes.ServiceDescription;
 import org.osgi.service.component.propertytypes.ServiceRanking;
 import org.osgi.service.component.propertytypes.ServiceVendor;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.aem.portfolio.core.services.Trace;
+
 /**
  * Simple servlet filter component that logs incoming requests.
+ *
+ * It also starts the {@link Trace} of each request, which is written to the
+ * trace logger once the request is done.
  */
 @Component(service = Filter.class,
            property = {
                    EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
            })
+@Designate(ocd = LoggingFilter.Config.class)
 @ServiceDescription("Demo to filter incoming requests")
 @ServiceRanking(-700)
 @ServiceVendor("Adobe")
 public class LoggingFilter implements Filter {
 
+    @ObjectClassDefinition(name = "Portfolio - Logging Filter",
+                           description = "Logs and traces incoming requests")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Slow request threshold (ms)",
+                             description = "Requests taking longer have their trace logged at INFO, others at DEBUG")
+        long slow_threshold() default DEFAULT_SLOW_THRESHOLD;
+    }
+
+    static final long DEFAULT_SLOW_THRESHOLD = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private long slowThreshold = DEFAULT_SLOW_THRESHOLD;
+
+    @Activate
+    protected void activate(final Config config) {
+        slowThreshold = config.slow_threshold();
+    }
+
     @Override
     public void doFilter(final ServletRequest request, final ServletResponse response,
                          final FilterChain filterChain) throws IOException, ServletException {
@@ -55,7 +83,13 @@ public class LoggingFilter implements Filter {
                 .getRequestPathInfo().getResourcePath(), slingRequest
                 .getRequestPathInfo().getSelectorString());
 
-        filterChain.doFilter(request, response);
+        Trace trace = Trace.start(slingRequest.getMethod() + " " + slingRequest.getRequestURI());
+        slingRequest.setAttribute(Trace.REQUEST_ATTRIBUTE, trace);
+        try (Trace.Scope scope = trace.bind()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.finish(slowThreshold);
+        }
     }
 
     @Override
@@ -0,0 +1,240 @@
+package com.adobe.aem.portfolio.core.filters;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.wrappers.SlingHttpServletResponseWrapper;
+import org.apache.sling.engine.EngineConstants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.component.propertytypes.ServiceRanking;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.RenderedPageStore;
+
+/**
+ * Serves anonymous GET requests for portfolio pages from the {@link RenderedPageStore}
+ * and stores the HTML of pages rendered on a cache miss.
+ *
+ * Pages are keyed by server name and request URI, so virtual hosts mapped
+ * to the same content do not share entries. The response headers of the
+ * miss (Cache-Control, Content-Language, security headers, ...) are stored
+ * with the HTML and replayed on a hit, except the per-response ones such as
+ * Set-Cookie.
+ *
+ * Disabled by default; enabled on publish through the run mode config.
+ */
+@Component(service = Filter.class,
+           property = {
+                   EngineConstants.SLING_FILTER_SCOPE + "=" + EngineConstants.FILTER_SCOPE_REQUEST,
+                   EngineConstants.SLING_FILTER_PATTERN + "=/content/portfolio/.*",
+                   EngineConstants.SLING_FILTER_EXTENSIONS + "=html",
+                   EngineConstants.SLING_FILTER_METHODS + "=GET"
+           })
+@Designate(ocd = RenderedPageCacheFilter.Config.class)
+@ServiceDescription("Serves rendered portfolio pages from the page store")
+@ServiceRanking(-800)
+public class RenderedPageCacheFilter implements Filter {
+
+    @ObjectClassDefinition(name = "Portfolio - Rendered Page Cache Filter",
+                           description = "Serves portfolio pages from the rendered page store")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "Whether pages are served from and stored in the page store")
+        boolean enabled() default false;
+    }
+
+    static final String CACHE_HEADER = "X-Portfolio-Page-Cache";
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final String CONTENT_TYPE = "Content-Type";
+    /** Ends the stored headers, which precede the HTML. */
+    private static final String HEADERS_END = "\n\n";
+
+    /** Headers that belong to one response only, in lower case. */
+    private static final Set<String> EXCLUDED_HEADERS = new HashSet<>(Arrays.asList(
+            "set-cookie", "content-length", "content-type", "date", "transfer-encoding", "connection",
+            CACHE_HEADER.toLowerCase(Locale.ROOT)));
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private RenderedPageStore pageStore;
+
+    private boolean enabled;
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response,
+                         final FilterChain filterChain) throws IOException, ServletException {
+
+        final SlingHttpServletRequest slingRequest = (SlingHttpServletRequest) request;
+        if (!enabled || !isCacheable(slingRequest)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final SlingHttpServletResponse slingResponse = (SlingHttpServletResponse) response;
+        final String key = slingRequest.getServerName() + slingRequest.getRequestURI();
+        final String cached = pageStore.get(key);
+        if (cached != null) {
+            logger.debug("serving {} from the page store", key);
+            final String html = replay(cached, slingResponse);
+            slingResponse.setHeader(CACHE_HEADER, "HIT");
+            slingResponse.getWriter().write(html);
+            return;
+        }
+
+        slingResponse.setHeader(CACHE_HEADER, "MISS");
+        final CapturingResponse capturingResponse = new CapturingResponse(slingResponse);
+        filterChain.doFilter(request, capturingResponse);
+
+        final String contentType = slingResponse.getContentType();
+        if (slingResponse.getStatus() == SlingHttpServletResponse.SC_OK
+                && contentType != null && contentType.startsWith("text/html")
+                && capturingResponse.getCapturedHtml() != null) {
+            pageStore.put(key, store(slingResponse, capturingResponse.getCapturedHtml()));
+        }
+    }
+
+    /**
+     * Prepends the replayable headers of a response to its HTML, one
+     * "name: value" line each, followed by an empty line.
+     */
+    static String store(final HttpServletResponse response, final String html) {
+        final StringBuilder page = new StringBuilder();
+        page.append(CONTENT_TYPE).append(": ").append(response.getContentType()).append('\n');
+        for (String name : new HashSet<>(response.getHeaderNames())) {
+            if (!EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                for (String value : response.getHeaders(name)) {
+                    page.append(name).append(": ").append(value).append('\n');
+                }
+            }
+        }
+        return page.append('\n').append(html).toString();
+    }
+
+    /**
+     * Sets the stored headers of a page on the response.
+     * @return The HTML of the page
+     */
+    static String replay(final String page, final HttpServletResponse response) {
+        final int end = page.indexOf(HEADERS_END);
+        for (String header : page.substring(0, end).split("\n")) {
+            final int colon = header.indexOf(": ");
+            final String name = header.substring(0, colon);
+            final String value = header.substring(colon + 2);
+            if (CONTENT_TYPE.equalsIgnoreCase(name)) {
+                response.setContentType(value);
+            } else {
+                response.addHeader(name, value);
+            }
+        }
+        return page.substring(end + HEADERS_END.length());
+    }
+
+    private boolean isCacheable(final SlingHttpServletRequest request) {
+        return request.getQueryString() == null
+                && ANONYMOUS.equals(request.getResourceResolver().getUserID());
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Response wrapper that copies everything written to the writer into a buffer.
+     * Output written to the output stream is passed through and makes the page uncacheable.
+     */
+    private static final class CapturingResponse extends SlingHttpServletResponseWrapper {
+
+        private final StringWriter captured = new StringWriter();
+        private PrintWriter writer;
+        private boolean streamUsed;
+
+        CapturingResponse(final SlingHttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new TeeWriter(super.getWriter(), captured));
+            }
+            return writer;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            streamUsed = true;
+            return super.getOutputStream();
+        }
+
+        String getCapturedHtml() {
+            if (streamUsed || writer == null) {
+                return null;
+            }
+            writer.flush();
+            return captured.toString();
+        }
+    }
+
+    private static final class TeeWriter extends Writer {
+
+        private final Writer target;
+        private final Writer copy;
+
+        TeeWriter(final Writer target, final Writer copy) {
+            this.target = target;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            target.write(cbuf, off, len);
+            copy.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+}
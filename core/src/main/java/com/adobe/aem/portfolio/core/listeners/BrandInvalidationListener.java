@@ -0,0 +1,45 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.BrandResolver;
+
+/**
+ * Invalidates cached brands when the brand of a page changes.
+ *
+ * Changes of a page content invalidate the page and its descendants, which
+ * inherit its brand; pages added, moved or removed invalidate their own
+ * subtree. Changes below a page content, to its components, do not touch
+ * the brand and are ignored. Changes made on other cluster nodes are
+ * received as well, since every instance caches its own brands.
+ */
+@Component(service = ResourceChangeListener.class,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/portfolio",
+                   ResourceChangeListener.PROPERTY_NAMES_HINT + "=" + BrandResolver.PROPERTY
+           })
+@ServiceDescription("Invalidates cached page brands on content changes")
+public class BrandInvalidationListener implements ExternalResourceChangeListener {
+
+    private static final String CONTENT = "/jcr:content";
+
+    @Reference
+    private BrandResolver brandResolver;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            String path = change.getPath();
+            if (!path.contains(CONTENT + "/")) {
+                brandResolver.invalidate(path);
+            }
+        }
+    }
+}
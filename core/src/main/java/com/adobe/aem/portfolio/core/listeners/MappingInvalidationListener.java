@@ -0,0 +1,57 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.cm.ConfigurationEvent;
+import org.osgi.service.cm.ConfigurationListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+
+/**
+ * Drops resolved links when the resource resolver mapping changes, either
+ * through /etc/map or through the resolver factory configuration
+ * (resource.resolver.mapping in ui.config). Mapping changes made on
+ * another cluster node invalidate the links cached on this one too.
+ */
+@Component(service = { ResourceChangeListener.class, ConfigurationListener.class },
+           property = {
+                   ResourceChangeListener.PATHS + "=/etc/map",
+                   ResourceChangeListener.PATHS + "=/etc/map.publish"
+           })
+@ServiceDescription("Invalidates resolved links on mapping changes")
+public class MappingInvalidationListener implements ExternalResourceChangeListener, ConfigurationListener {
+
+    static final String RESOLVER_FACTORY_PID = "org.apache.sling.jcr.resource.internal.JcrResourceResolverFactoryImpl";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private LinkResolver linkResolver;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        if (!changes.isEmpty()) {
+            invalidate(changes.get(0).getPath());
+        }
+    }
+
+    @Override
+    public void configurationEvent(ConfigurationEvent event) {
+        if (RESOLVER_FACTORY_PID.equals(event.getPid())) {
+            invalidate(event.getPid());
+        }
+    }
+
+    private void invalidate(String source) {
+        logger.debug("Resource mapping changed at {}", source);
+        linkResolver.invalidate();
+    }
+}
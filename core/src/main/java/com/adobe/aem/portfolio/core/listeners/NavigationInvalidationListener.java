@@ -0,0 +1,38 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.NavigationTreeService;
+
+/**
+ * Rebuilds header navigation menus when the header content changes.
+ *
+ * The header usually lives in the header experience fragment, but the
+ * component can also be placed on a page directly. Menus are cached per
+ * instance, so the changes of other cluster nodes are handled too.
+ */
+@Component(service = ResourceChangeListener.class,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/experience-fragments/portfolio",
+                   ResourceChangeListener.PATHS + "=/content/portfolio"
+           })
+@ServiceDescription("Invalidates cached header navigation on content changes")
+public class NavigationInvalidationListener implements ExternalResourceChangeListener {
+
+    @Reference
+    private NavigationTreeService navigationTreeService;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            navigationTreeService.invalidate(change.getPath());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.RenderedPageStore;
+
+/**
+ * Drops the rendered page store when portfolio content changes.
+ *
+ * Pages include the header and footer experience fragments, so any change
+ * under the site or its fragments invalidates every page, the same way the
+ * dispatcher invalidates its cache on activation. The store is local to
+ * the instance, so changes from other cluster nodes drop it as well.
+ */
+@Component(service = ResourceChangeListener.class,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/portfolio",
+                   ResourceChangeListener.PATHS + "=/content/experience-fragments/portfolio"
+           })
+@ServiceDescription("Invalidates rendered portfolio pages on content changes")
+public class RenderedPageInvalidationListener implements ExternalResourceChangeListener {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private RenderedPageStore pageStore;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        if (!changes.isEmpty()) {
+            logger.debug("Clearing {} rendered pages after change at {}", pageStore.size(), changes.get(0).getPath());
+            pageStore.clear();
+        }
+    }
+}
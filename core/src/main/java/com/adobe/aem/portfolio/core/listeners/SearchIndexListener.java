@@ -0,0 +1,37 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ExternalResourceChangeListener;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.SearchIndex;
+
+/**
+ * Re-indexes changed portfolio pages in the in-memory search index,
+ * including pages changed on other cluster nodes.
+ */
+@Component(service = ResourceChangeListener.class,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/portfolio"
+           })
+@ServiceDescription("Keeps the portfolio search index up to date")
+public class SearchIndexListener implements ExternalResourceChangeListener {
+
+    @Reference
+    private SearchIndex searchIndex;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        List<String> paths = new ArrayList<>(changes.size());
+        for (ResourceChange change : changes) {
+            paths.add(change.getPath());
+        }
+        searchIndex.update(paths);
+    }
+}
@@ -0,0 +1,33 @@
+package com.adobe.aem.portfolio.core.listeners;
+
+import java.util.List;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.SitemapGenerator;
+
+/**
+ * Reports changed pages to the sitemap generator, which applies them on its
+ * next scheduled update.
+ */
+@Component(service = ResourceChangeListener.class,
+           property = {
+                   ResourceChangeListener.PATHS + "=/content/portfolio"
+           })
+@ServiceDescription("Collects page changes for the sitemap")
+public class SitemapChangeListener implements ResourceChangeListener {
+
+    @Reference
+    private SitemapGenerator sitemapGenerator;
+
+    @Override
+    public void onChange(List<ResourceChange> changes) {
+        for (ResourceChange change : changes) {
+            sitemapGenerator.markChanged(change.getPath());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.adobe.aem.portfolio.core.models;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.models.annotations.DefaultInjectionStrategy;
+import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
+
+import com.adobe.aem.portfolio.core.services.BrandResolver;
+import com.adobe.aem.portfolio.core.services.ClientLibraryUrlService;
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+/**
+ * Resolves the site stylesheets of the brand of the page.
+ *
+ * Each brand under ui.frontend/src/main/webpack/brands is compiled at build
+ * time into its own copy of the site stylesheet, in the portfolio.site.&lt;brand&gt;
+ * clientlib, so a branded page loads one stylesheet and nothing is
+ * switched in the browser. Pages without a brand, or with a brand that has
+ * no clientlib, get portfolio.site. The URLs are fingerprinted, so each
+ * brand bundle is a separate, immutable dispatcher cache entry.
+ *
+ * Usage: {@code data-sly-use.styles="com.adobe.aem.portfolio.core.models.BrandStylesModel"}
+ */
+@Model(
+    adaptables = SlingHttpServletRequest.class,
+    defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL
+)
+public class BrandStylesModel {
+
+    static final String SITE_CATEGORY = "portfolio.site";
+
+    @SlingObject
+    private SlingHttpServletRequest request;
+
+    @OSGiService
+    private BrandResolver brandResolver;
+
+    @OSGiService
+    private ClientLibraryUrlService clientLibraryUrlService;
+
+    private String brand;
+
+    private List<String> hrefs;
+
+    @PostConstruct
+    protected void init() {
+        if (clientLibraryUrlService == null) {
+            hrefs = Collections.emptyList();
+            return;
+        }
+        if (brandResolver != null && request != null) {
+            brand = brandResolver.getBrand(request.getResource());
+        }
+        // portfolio.dependencies comes with the page policy, so only the site library itself is linked
+        if (brand != null) {
+            hrefs = clientLibraryUrlService.getUrls(new String[] { category(brand) }, LibraryType.CSS, false);
+        }
+        if (hrefs == null || hrefs.isEmpty()) {
+            hrefs = clientLibraryUrlService.getUrls(new String[] { SITE_CATEGORY }, LibraryType.CSS, false);
+        }
+    }
+
+    /**
+     * Gets the clientlib category of the site stylesheet of a brand, named
+     * after its folder in ui.frontend (lower case letters, digits and dashes).
+     * @param brand The brand
+     * @return The category
+     */
+    static String category(final String brand) {
+        return SITE_CATEGORY + "." + brand.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9-]+", "-");
+    }
+
+    /**
+     * Gets the effective brand of the page.
+     * @return The brand, null if the page has none
+     */
+    public String getBrand() {
+        return brand;
+    }
+
+    /**
+     * Gets the fingerprinted site stylesheet URLs of the brand.
+     * @return The stylesheet URLs, without those of the libraries they depend on
+     */
+    public List<String> getHrefs() {
+        return hrefs != null ? hrefs : Collections.emptyList();
+    }
+}
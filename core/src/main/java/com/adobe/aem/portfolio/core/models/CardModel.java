@@ -9,12 +9,18 @@ package com.adobe.aem.portfolio.core.models;
 import javax.annotation.PostConstruct;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.Trace;
+
 /**
  * Sling Model for the Card component.
  * 
@@ -27,9 +33,23 @@ import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 )
 public class CardModel {
 
+    public static final String RESOURCE_TYPE = "portfolio/components/card";
+
+    /** Display width of the card image, including high-density screens. */
+    public static final int IMAGE_WIDTH = 640;
+
     @SlingObject
     private Resource currentResource;
 
+    @SlingObject
+    private ResourceResolver resourceResolver;
+
+    @OSGiService
+    private LinkResolver linkResolver;
+
+    @OSGiService
+    private ImageVariantService imageVariants;
+
     @ValueMapValue
     @Default(values = "Card Title")
     private String title;
@@ -78,12 +98,28 @@ public class CardModel {
 
     @PostConstruct
     protected void init() {
+        try (Trace.Span span = Trace.current().span("model CardModel")) {
+            populate();
+        }
+    }
+
+    private void populate() {
         // Generate a unique ID for this card instance
         if (currentResource != null) {
             componentId = "card-" + Math.abs(currentResource.getPath().hashCode());
         } else {
             componentId = "card-" + System.currentTimeMillis();
         }
+
+        // Map the link to its publish URL
+        if (linkResolver != null && isNotBlank(link)) {
+            link = linkResolver.resolve(resourceResolver, link)[0];
+        }
+
+        // Serve the image resized, as a dispatcher-cached variant
+        if (imageVariants != null && isNotBlank(image)) {
+            image = imageVariants.getUrl(image, IMAGE_WIDTH);
+        }
     }
 
     /**
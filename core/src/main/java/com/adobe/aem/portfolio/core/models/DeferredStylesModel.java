@@ -0,0 +1,54 @@
+package com.adobe.aem.portfolio.core.models;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.models.annotations.DefaultInjectionStrategy;
+import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.RequestAttribute;
+
+import com.adobe.aem.portfolio.core.services.ClientLibraryUrlService;
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+/**
+ * Resolves clientlib categories into stylesheet URLs, so the page can load
+ * them asynchronously (rel="preload") after the inlined critical CSS.
+ * The URLs are fingerprinted, see {@link ClientLibraryUrlService}.
+ *
+ * Usage: {@code data-sly-use.styles="${'...DeferredStylesModel' @ categories='portfolio.now,portfolio.writing'}"}
+ */
+@Model(
+    adaptables = SlingHttpServletRequest.class,
+    defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL
+)
+public class DeferredStylesModel {
+
+    @OSGiService
+    private ClientLibraryUrlService clientLibraryUrlService;
+
+    @RequestAttribute
+    private String categories;
+
+    private List<String> hrefs;
+
+    @PostConstruct
+    protected void init() {
+        if (clientLibraryUrlService == null || categories == null || categories.trim().isEmpty()) {
+            hrefs = Collections.emptyList();
+            return;
+        }
+        hrefs = clientLibraryUrlService.getUrls(categories.trim().split("\\s*,\\s*"), LibraryType.CSS);
+    }
+
+    /**
+     * Gets the fingerprinted stylesheet URLs of the requested categories and their dependencies.
+     * @return The stylesheet URLs, in dependency order
+     */
+    public List<String> getHrefs() {
+        return hrefs != null ? hrefs : Collections.emptyList();
+    }
+}
@@ -1,10 +1,18 @@
 package com.adobe.aem.portfolio.core.models;
 
-import javax.inject.Inject;
+import javax.annotation.PostConstruct;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
+import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
+
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.adobe.aem.portfolio.core.services.LinkResolver;
 
 /**
  * Sling Model for Header Component 2 (WKND Style).
@@ -18,31 +26,56 @@ import org.apache.sling.models.annotations.Model;
 )
 public class HeaderComponent2Model {
 
-    @Inject
+    /** Display width of the logo, including high-density screens. */
+    public static final int LOGO_WIDTH = 320;
+
+    @SlingObject
+    private ResourceResolver resourceResolver;
+
+    @OSGiService
+    private LinkResolver linkResolver;
+
+    @OSGiService
+    private ImageVariantService imageVariants;
+
+    @ValueMapValue
     private String logoImage;
 
-    @Inject
+    @ValueMapValue
+    @Default(values = "/")
     private String logoLink;
 
-    @Inject
+    @ValueMapValue
+    @Default(values = "Logo")
     private String logoAltText;
 
-    @Inject
+    @ValueMapValue
+    @Default(values = "LOGO")
     private String logoText;
 
+    @PostConstruct
+    protected void init() {
+        if (linkResolver != null) {
+            logoLink = linkResolver.resolve(resourceResolver, logoLink)[0];
+        }
+        if (imageVariants != null) {
+            logoImage = imageVariants.getUrl(logoImage, LOGO_WIDTH);
+        }
+    }
+
     public String getLogoImage() {
         return logoImage;
     }
 
     public String getLogoLink() {
-        return logoLink != null ? logoLink : "/";
+        return logoLink;
     }
 
     public String getLogoAltText() {
-        return logoAltText != null ? logoAltText : "Logo";
+        return logoAltText;
     }
 
     public String getLogoText() {
-        return logoText != null ? logoText : "LOGO";
+        return logoText;
     }
 }
@@ -2,56 +2,94 @@ package com.adobe.aem.portfolio.core.models;
 
 import java.util.List;
 
-import javax.inject.Inject;
+import javax.annotation.PostConstruct;
 
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
-import org.apache.sling.models.annotations.injectorspecific.ChildResource;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
+import org.apache.sling.models.annotations.injectorspecific.Self;
+import org.apache.sling.models.annotations.injectorspecific.SlingObject;
+import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.NavigationTree;
+import com.adobe.aem.portfolio.core.services.NavigationTreeService;
+import com.adobe.aem.portfolio.core.services.Trace;
 
 
 @Model(adaptables = Resource.class, defaultInjectionStrategy = DefaultInjectionStrategy.OPTIONAL)
 public class HeaderComponentModel {
 
-    @Inject
+    @ValueMapValue
     private String logoImage;
 
-    @Inject
+    @ValueMapValue
     private String homePageTitle;
 
-    @Inject
+    @ValueMapValue
     private String homePageUrl;
 
-    @Inject
+    @ValueMapValue
     private String aboutUsTitle;
 
-    @Inject
+    @ValueMapValue
     private String aboutUsUrl;
 
-    @Inject
+    @ValueMapValue
     private String signupTitle;
 
-    @Inject
+    @ValueMapValue
     private String signupUrl;
 
 
         
-    @Inject
+    @ValueMapValue
     private String loginTitle;
 
-    @ChildResource
-    private List<HeaderSubNavigationModel> aboutUsNavigation;
+    @Self
+    private Resource resource;
+
+    @OSGiService
+    private NavigationTreeService navigationTreeService;
+
+    @SlingObject
+    private ResourceResolver resourceResolver;
 
+    @OSGiService
+    private LinkResolver linkResolver;
 
-    
+    private NavigationTree aboutUsNavigation = NavigationTree.EMPTY;
 
-    public List<HeaderSubNavigationModel> getAboutUsNavigation() {
-        return aboutUsNavigation;
+    /**
+     * The sub-navigation items are read once per header content revision and
+     * shared by all pages, see {@link NavigationTreeService}; their links are
+     * mapped once per model.
+     */
+    public List<NavigationTree.Item> getAboutUsNavigation() {
+        return aboutUsNavigation.getItems();
     }
 
-    @Inject
+    @ValueMapValue
     private String loginUrl ;
 
+    @PostConstruct
+    protected void init() {
+        try (Trace.Span span = Trace.current().span("model HeaderComponentModel")) {
+            if (linkResolver != null) {
+                String[] urls = linkResolver.resolve(resourceResolver, homePageUrl, aboutUsUrl, signupUrl, loginUrl);
+                homePageUrl = urls[0];
+                aboutUsUrl = urls[1];
+                signupUrl = urls[2];
+                loginUrl = urls[3];
+            }
+            if (navigationTreeService != null) {
+                aboutUsNavigation = navigationTreeService.getTree(resource);
+            }
+        }
+    }
+
     public String getLogoImage() {
         return logoImage;
     }
@@ -0,0 +1,46 @@
+package com.adobe.aem.portfolio.core.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.adobe.aem.portfolio.core.services.ClientLibraryUrlService;
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+/**
+ * Data attributes that declare a component to the lazy hydration script
+ * (clientlib-base/js/hydrate.js), which loads the component's JS clientlib
+ * once the component scrolls into view.
+ */
+final class HydrationAttributes {
+
+    static final String NAME = "data-cmp-hydrate";
+    static final String SOURCE = "data-cmp-hydrate-src";
+
+    private HydrationAttributes() {
+        // static methods only
+    }
+
+    /**
+     * Builds the attributes for use with data-sly-attribute.
+     * @param name The hydrator name the component script registers
+     * @param category The category of the component's JS clientlib
+     * @param clientLibraryUrlService The service resolving the clientlib URL
+     * @return The attributes, empty if the clientlib cannot be resolved
+     */
+    static Map<String, String> of(String name, String category, ClientLibraryUrlService clientLibraryUrlService) {
+        if (clientLibraryUrlService == null) {
+            return Collections.emptyMap();
+        }
+        List<String> urls = clientLibraryUrlService.getUrls(new String[] { category }, LibraryType.JS);
+        if (urls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put(NAME, name);
+        // dependencies come first, the requested library is last
+        attributes.put(SOURCE, urls.get(urls.size() - 1));
+        return attributes;
+    }
+}
@@ -3,6 +3,7 @@ package com.adobe.aem.portfolio.core.models;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Map;
 import javax.annotation.PostConstruct;
 
 import org.apache.sling.api.resource.Resource;
@@ -10,16 +11,22 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
 import org.apache.sling.models.annotations.injectorspecific.ChildResource;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.SlingObject;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import com.adobe.aem.portfolio.core.services.ClientLibraryUrlService;
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.adobe.aem.portfolio.core.servlets.DocumentDownloadServlet;
+
 /**
  * Sling Model for the Now Section Component.
  * 
  * Features:
  * - Experience timeline with company, role, and dates
  * - Projects list with title, description, and link
- * - CV/Resume download link
+ * - CV/Resume download link, served by DocumentDownloadServlet
  * 
  * Dialog structure:
  * - experiences (multifield) -> company, role, startDate, endDate, current
@@ -33,9 +40,17 @@ import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 )
 public class NowSectionModel {
 
+    public static final String RESOURCE_TYPE = "portfolio/components/My_Now_Section";
+
     @SlingObject
     private ResourceResolver resourceResolver;
 
+    @OSGiService
+    private ClientLibraryUrlService clientLibraryUrlService;
+
+    @OSGiService
+    private LinkResolver linkResolver;
+
     @ChildResource(name = "experiences")
     private List<Resource> experienceResources;
 
@@ -69,6 +84,12 @@ public class NowSectionModel {
 
     @PostConstruct
     protected void init() {
+        try (Trace.Span span = Trace.current().span("model NowSectionModel")) {
+            populate();
+        }
+    }
+
+    private void populate() {
         // Parse experience resources
         experiences = new ArrayList<>();
         if (experienceResources != null) {
@@ -109,8 +130,12 @@ public class NowSectionModel {
                 proj.setTechStack(res.getValueMap().get("techStack", String.class));
                 projects.add(proj);
             }
+            resolveProjectLinks();
         }
 
+        // serve a DAM CV with range and ETag support, opened in the browser
+        cvLink = DocumentDownloadServlet.getDownloadPath(cvLink, true);
+
         // Parse skill categories
         skillCategories = new ArrayList<>();
         if (skillCategoryResources != null) {
@@ -135,6 +160,23 @@ public class NowSectionModel {
         }
     }
 
+    /**
+     * Maps all project links to their publish URLs in one batch.
+     */
+    private void resolveProjectLinks() {
+        if (linkResolver == null || projects.isEmpty()) {
+            return;
+        }
+        String[] links = new String[projects.size()];
+        for (int i = 0; i < links.length; i++) {
+            links[i] = projects.get(i).getLink();
+        }
+        String[] resolved = linkResolver.resolve(resourceResolver, links);
+        for (int i = 0; i < resolved.length; i++) {
+            projects.get(i).setLink(resolved[i]);
+        }
+    }
+
     // Getters
     public List<Experience> getExperiences() {
         return experiences != null ? experiences : Collections.emptyList();
@@ -192,6 +234,14 @@ public class NowSectionModel {
         return cvLink != null && !cvLink.isEmpty();
     }
 
+    /**
+     * Gets the data attributes that load the accordion script when the section scrolls into view.
+     * @return The attributes for data-sly-attribute
+     */
+    public Map<String, String> getHydrationAttributes() {
+        return HydrationAttributes.of("now", "portfolio.now.hydrate", clientLibraryUrlService);
+    }
+
     // Inner class for Experience
     public static class Experience {
         private String company;
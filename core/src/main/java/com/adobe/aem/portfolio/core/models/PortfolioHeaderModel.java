@@ -4,8 +4,11 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.models.annotations.Default;
 import org.apache.sling.models.annotations.DefaultInjectionStrategy;
 import org.apache.sling.models.annotations.Model;
+import org.apache.sling.models.annotations.injectorspecific.OSGiService;
 import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+
 /**
  * Sling Model for the Portfolio Header component.
  * Single-page header with logo, glowing subtitle, and section anchor links.
@@ -16,6 +19,12 @@ import org.apache.sling.models.annotations.injectorspecific.ValueMapValue;
 )
 public class PortfolioHeaderModel {
 
+    /** Display width of the logo, including high-density screens. */
+    public static final int LOGO_WIDTH = 320;
+
+    @OSGiService
+    private ImageVariantService imageVariants;
+
     @ValueMapValue
     private String logoImage;
 
@@ -37,7 +46,7 @@ public class PortfolioHeaderModel {
 
     // Getters
     public String getLogoImage() {
-        return logoImage;
+        return imageVariants != null ? imageVariants.getUrl(logoImage, LOGO_WIDTH) : logoImage;
     }
 
     public String getSubtitle() {
@@ -13,6 +13,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import com.adobe.aem.portfolio.core.services.Trace;
+
 /**
  * Sling Model for Writing Section Component
  * Displays a list of blog/article links (e.g., Medium articles)
@@ -23,6 +25,8 @@ import java.util.List;
 )
 public class WritingSectionModel {
 
+    public static final String RESOURCE_TYPE = "portfolio/components/My_Writing_Section";
+
     @SlingObject
     private ResourceResolver resourceResolver;
 
@@ -39,6 +43,12 @@ public class WritingSectionModel {
 
     @PostConstruct
     protected void init() {
+        try (Trace.Span span = Trace.current().span("model WritingSectionModel")) {
+            populate();
+        }
+    }
+
+    private void populate() {
         articles = new ArrayList<>();
         if (articleResources != null) {
             for (Resource res : articleResources) {
@@ -0,0 +1,152 @@
+package com.adobe.aem.portfolio.core.schedulers;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.models.CardModel;
+import com.adobe.aem.portfolio.core.models.PortfolioHeaderModel;
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.dam.api.Asset;
+
+/**
+ * Generates the image variants the components link to for every image of
+ * the DAM folder, so a new asset is not encoded on its first view.
+ *
+ * The folder is walked by the parallel content traversal; variants already
+ * cached for the current original are skipped, so only new and changed
+ * assets are encoded. The number of images decoded at a time is bounded by
+ * the image variant service, whatever the traversal parallelism. Enabled on
+ * publish, where the variants are served.
+ */
+@Designate(ocd=ImageVariantScheduledTask.Config.class)
+@Component(service=Runnable.class)
+public class ImageVariantScheduledTask implements Runnable {
+
+    @ObjectClassDefinition(name="Portfolio - Image variant task",
+                           description = "Generates the image variants of new and changed assets")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cron-job expression")
+        String scheduler_expression() default "0 */5 * * * ?";
+
+        @AttributeDefinition(name = "Concurrent task",
+                             description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "Whether the variants are generated on this instance")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Root path",
+                             description = "DAM folder whose images are processed")
+        String root_path() default "/content/dam/portfolio";
+
+        @AttributeDefinition(name = "Widths",
+                             description = "Widths the components request: header logos and card images")
+        int[] widths() default { PortfolioHeaderModel.LOGO_WIDTH, CardModel.IMAGE_WIDTH };
+    }
+
+    private static final long SLOW_THRESHOLD = 600000;
+    private static final Set<String> IMAGE_TYPES =
+            new HashSet<>(Arrays.asList("image/jpeg", "image/png", "image/gif"));
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private ContentTraversal contentTraversal;
+
+    @Reference
+    private ImageVariantService imageVariants;
+
+    private volatile boolean enabled;
+    private String rootPath;
+    private int[] widths;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        Trace trace = Trace.start("job image variants");
+        try (Trace.Scope scope = trace.bind()) {
+            LongAdder encoded = new LongAdder();
+            LongAdder cached = new LongAdder();
+            LongAdder failed = new LongAdder();
+            // the widths the components link to, as getUrl rounds them up
+            int[] buckets = Arrays.stream(widths).map(imageVariants::bucket).distinct().toArray();
+            long visited = contentTraversal.traverse(rootPath, resource -> {
+                if (!enabled) {
+                    return ContentTraversal.Action.STOP;
+                }
+                if (JcrConstants.JCR_CONTENT.equals(resource.getName())) {
+                    return ContentTraversal.Action.SKIP_CHILDREN;
+                }
+                Asset asset = resource.adaptTo(Asset.class);
+                if (asset == null) {
+                    return ContentTraversal.Action.CONTINUE;
+                }
+                generate(resource, asset, buckets, encoded, cached, failed);
+                return ContentTraversal.Action.SKIP_CHILDREN;
+            });
+            logger.info("Image variants of {}: {} encoded, {} up to date, {} failed, {} resources visited",
+                    rootPath, encoded.sum(), cached.sum(), failed.sum(), visited);
+        } catch (LoginException e) {
+            logger.error("Could not read {}", rootPath, e);
+        } finally {
+            trace.finish(SLOW_THRESHOLD);
+        }
+    }
+
+    private void generate(final Resource resource, final Asset asset, final int[] buckets,
+            final LongAdder encoded, final LongAdder cached, final LongAdder failed) {
+        if (asset.getOriginal() == null || !IMAGE_TYPES.contains(asset.getMimeType())) {
+            return;
+        }
+        String format = imageVariants.getFormat(asset.getMimeType());
+        for (int width : buckets) {
+            if (imageVariants.isCached(asset, width, format)) {
+                cached.increment();
+                continue;
+            }
+            try {
+                imageVariants.getVariant(asset, width, format);
+                encoded.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                logger.warn("Could not encode {} at {} as {}", resource.getPath(), width, format, e);
+                return;
+            }
+        }
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        rootPath = config.root_path();
+        widths = config.widths().clone();
+        enabled = config.enabled();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        // stops a running traversal at the next resource
+        enabled = false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.adobe.aem.portfolio.core.schedulers;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.SitemapGenerator;
+import com.adobe.aem.portfolio.core.services.Trace;
+
+/**
+ * Brings the stored sitemap up to date. The first run indexes the whole
+ * site, later runs only apply the pages changed since the previous run.
+ * Enabled on publish, where the sitemap is served.
+ */
+@Designate(ocd=SitemapScheduledTask.Config.class)
+@Component(service=Runnable.class)
+public class SitemapScheduledTask implements Runnable {
+
+    @ObjectClassDefinition(name="Portfolio - Sitemap update task",
+                           description = "Applies content changes to the stored sitemap")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cron-job expression")
+        String scheduler_expression() default "0 */5 * * * ?";
+
+        @AttributeDefinition(name = "Concurrent task",
+                             description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "Whether the sitemap is generated on this instance")
+        boolean enabled() default false;
+    }
+
+    private static final long SLOW_THRESHOLD = 60000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private SitemapGenerator sitemapGenerator;
+
+    private boolean enabled;
+
+    @Override
+    public void run() {
+        if (enabled) {
+            Trace trace = Trace.start("job sitemap update");
+            try (Trace.Scope scope = trace.bind()) {
+                logger.debug("Updating the sitemap of {}", sitemapGenerator.getRootPath());
+                sitemapGenerator.update();
+            } finally {
+                trace.finish(SLOW_THRESHOLD);
+            }
+        }
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.adobe.aem.portfolio.core.schedulers;
+
+import java.io.IOException;
+
+import org.apache.sling.api.resource.LoginException;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.StaticExporter;
+import com.adobe.aem.portfolio.core.services.Trace;
+
+/**
+ * Exports the site as static files on a schedule, by default only the pages
+ * modified since the previous run. Disabled by default: the instance that
+ * serves or uploads the export enables it.
+ */
+@Designate(ocd=StaticExportScheduledTask.Config.class)
+@Component(service=Runnable.class)
+public class StaticExportScheduledTask implements Runnable {
+
+    @ObjectClassDefinition(name="Portfolio - Static export task",
+                           description = "Exports the site as static files")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cron-job expression")
+        String scheduler_expression() default "0 0 * * * ?";
+
+        @AttributeDefinition(name = "Concurrent task",
+                             description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "Whether the site is exported on this instance")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Incremental",
+                             description = "Only render the pages modified since the previous export")
+        boolean incremental() default true;
+    }
+
+    private static final long SLOW_THRESHOLD = 600000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private StaticExporter staticExporter;
+
+    private boolean enabled;
+    private boolean incremental;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        Trace trace = Trace.start("job static export");
+        try (Trace.Scope scope = trace.bind()) {
+            staticExporter.export(incremental);
+        } catch (LoginException | IOException e) {
+            logger.error("Could not export the site", e);
+        } finally {
+            trace.finish(SLOW_THRESHOLD);
+        }
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        incremental = config.incremental();
+    }
+}
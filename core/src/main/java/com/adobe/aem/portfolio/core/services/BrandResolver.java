@@ -0,0 +1,30 @@
+package com.adobe.aem.portfolio.core.services;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Resolves the effective brand of pages.
+ *
+ * The brand is the brand property of the page content, set by
+ * /bin/updatePageProp, or else the brand of the nearest ancestor page that
+ * has one. Resolved brands are cached per path until the brand of the page
+ * or of an ancestor changes.
+ */
+public interface BrandResolver {
+
+    /** The page content property holding the brand. */
+    String PROPERTY = "brand";
+
+    /**
+     * Gets the effective brand of a page.
+     * @param resource The page, its content or a component of the page
+     * @return The brand, null if neither the page nor an ancestor has one
+     */
+    String getBrand(Resource resource);
+
+    /**
+     * Drops the cached brands of a page and its descendants.
+     * @param path The page path, or the path of its content
+     */
+    void invalidate(String path);
+}
@@ -0,0 +1,33 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.util.List;
+
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+/**
+ * Builds content-addressed URLs for client libraries.
+ *
+ * The URLs carry a hash of the library content (e.g.
+ * /etc.clientlibs/portfolio/clientlibs/clientlib-page.lc-1a2b...-lc.min.css),
+ * so they can be cached as immutable by the dispatcher and the browser.
+ */
+public interface ClientLibraryUrlService {
+
+    /**
+     * Gets the URLs of the libraries of the given categories.
+     * @param categories The clientlib categories
+     * @param type The library type (CSS or JS)
+     * @return The fingerprinted URLs, dependencies first
+     */
+    List<String> getUrls(String[] categories, LibraryType type);
+
+    /**
+     * Gets the URLs of the libraries of the given categories.
+     * @param categories The clientlib categories
+     * @param type The library type (CSS or JS)
+     * @param dependencies Whether the libraries they depend on are included,
+     *        false when the page includes those separately
+     * @return The fingerprinted URLs, dependencies first
+     */
+    List<String> getUrls(String[] categories, LibraryType type, boolean dependencies);
+}
@@ -0,0 +1,62 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.util.concurrent.Future;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Walks a content subtree in parallel.
+ *
+ * Subtrees are split across worker threads, each reading with its own
+ * content-reader resolver, and every resource is streamed to the visitor as
+ * soon as it is read. The visitor is called concurrently and in no
+ * particular order, except that a resource is always visited before its
+ * children.
+ */
+public interface ContentTraversal {
+
+    /**
+     * Walks the subtree and waits for the walk to finish.
+     * @param rootPath The path of the first resource visited
+     * @param visitor The visitor, called from the worker threads
+     * @return The number of resources visited
+     * @throws LoginException If a worker resolver cannot be borrowed
+     */
+    long traverse(String rootPath, Visitor visitor) throws LoginException;
+
+    /**
+     * Starts walking the subtree in the background.
+     * Cancelling the returned future stops the walk; the workers finish the
+     * resources they are visiting and visit no more.
+     * @param rootPath The path of the first resource visited
+     * @param visitor The visitor, called from the worker threads
+     * @return The number of resources visited, once the walk is done
+     */
+    Future<Long> start(String rootPath, Visitor visitor);
+
+    /**
+     * Receives the resources of a traversal.
+     */
+    interface Visitor {
+
+        /**
+         * Visits a resource. Must be thread-safe, and must not keep the
+         * resource nor its resolver beyond the call.
+         * Workers do not read ahead of the visitor, so a slow visitor slows
+         * down the walk rather than piling up resources.
+         * @param resource The resource
+         * @return How to continue
+         */
+        Action visit(Resource resource);
+    }
+
+    enum Action {
+        /** Visit the children of the resource. */
+        CONTINUE,
+        /** Do not descend into the resource. */
+        SKIP_CHILDREN,
+        /** Stop the whole traversal. */
+        STOP
+    }
+}
@@ -0,0 +1,97 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.day.cq.dam.api.Asset;
+
+/**
+ * Resized and re-encoded variants of the portfolio images, kept in a disk
+ * cache.
+ *
+ * Variants only exist for a fixed set of widths, so the cache stays bounded
+ * however the images are requested. The format is part of the URL, given
+ * by its extension, so a variant URL always returns the same bytes and can
+ * be cached by the dispatcher.
+ */
+public interface ImageVariantService {
+
+    /** The selector of variant URLs, followed by the width, e.g. avatar.jpg.portfolio-image.640.jpg */
+    String SELECTOR = "portfolio-image";
+
+    /**
+     * Gets the URL of an image variant.
+     * @param path The image path, e.g. /content/dam/portfolio/avatar.jpg
+     * @param width The width the image is displayed at
+     * @return The URL of the variant with the next larger width, in the format
+     *         of {@link #getFormat(String)}, or the path itself if it is not a DAM image
+     */
+    String getUrl(String path, int width);
+
+    /**
+     * @return The widths variants exist for, ascending
+     */
+    int[] getWidths();
+
+    /**
+     * Rounds a display width up to the width of its variant, as
+     * {@link #getUrl(String, int)} does.
+     * @param width The width the image is displayed at
+     * @return The next larger width from {@link #getWidths()}, or the largest one
+     */
+    int bucket(int width);
+
+    /**
+     * Picks the format of the variants {@link #getUrl(String, int)} links to.
+     * @param originalType The MIME type of the original
+     * @return PNG for PNG and GIF originals, to keep their transparency, otherwise JPEG
+     */
+    String getFormat(String originalType);
+
+    /**
+     * Gets the format of a variant URL.
+     * @param extension The extension of the URL, e.g. jpg
+     * @return The MIME type, null if there is no encoder for it, e.g. for webp
+     *         when no WebP writer is installed
+     */
+    String getFormatOfExtension(String extension);
+
+    /**
+     * Gets a variant, and generates it if it is not in the cache.
+     * @param asset The image
+     * @param width One of the widths from {@link #getWidths()}
+     * @param format A MIME type returned by {@link #getFormat(String)} or {@link #getFormatOfExtension(String)}
+     * @return The variant, null if the asset is not an image that can be decoded
+     * @throws IOException If the variant cannot be generated
+     */
+    Variant getVariant(Asset asset, int width, String format) throws IOException;
+
+    /**
+     * @param asset The image
+     * @param width One of the widths from {@link #getWidths()}
+     * @param format A MIME type returned by {@link #getFormat(String)} or {@link #getFormatOfExtension(String)}
+     * @return Whether the variant is in the cache for the current original of the asset
+     */
+    boolean isCached(Asset asset, int width, String format);
+
+    /**
+     * A cached variant.
+     */
+    interface Variant {
+
+        /**
+         * @return The cached file, which may be evicted once the variant is served
+         */
+        Path getFile();
+
+        /**
+         * @return The MIME type
+         */
+        String getMimeType();
+
+        /**
+         * @return The quoted ETag, derived from the original binary, width and format
+         */
+        String getETag();
+    }
+}
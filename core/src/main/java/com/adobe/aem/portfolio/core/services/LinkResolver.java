@@ -0,0 +1,27 @@
+package com.adobe.aem.portfolio.core.services;
+
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Turns authored links into publish URLs.
+ *
+ * Page paths (e.g. /content/portfolio/us/en/about) get the .html extension
+ * and the resource resolver mapping (e.g. /us/en/about.html); external URLs,
+ * anchors and DAM assets (/content/dam/...) are returned unchanged. Resolved
+ * links are cached until the mapping changes.
+ */
+public interface LinkResolver {
+
+    /**
+     * Resolves a batch of links.
+     * @param resolver The resource resolver used for mapping
+     * @param links The authored links, may contain null
+     * @return The resolved links, at the same index as the authored link
+     */
+    String[] resolve(ResourceResolver resolver, String... links);
+
+    /**
+     * Drops all resolved links, e.g. after a mapping change.
+     */
+    void invalidate();
+}
@@ -0,0 +1,30 @@
+package com.adobe.aem.portfolio.core.services;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Request-scoped cache of Sling Models, keyed by model class and resource
+ * path, so a component included several times per page, like the header
+ * and footer experience fragments, is only adapted once per request.
+ *
+ * The models configured as cacheable are also served from the cache to
+ * data-sly-use.
+ */
+public interface ModelCache {
+
+    /**
+     * Adapts the resource, or returns the model adapted earlier in the request.
+     * @param request The request, null to adapt without caching
+     * @param resource The resource
+     * @param type The model class, which must only depend on the resource
+     * @param <T> The model type
+     * @return The model, null if the resource cannot be adapted
+     */
+    <T> T adapt(SlingHttpServletRequest request, Resource resource, Class<T> type);
+
+    /**
+     * @return The number of adaptations answered from the cache since activation
+     */
+    long getAvoidedAdaptations();
+}
@@ -0,0 +1,73 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, flattened navigation menu of a header component.
+ *
+ * Titles and mapped URLs are kept in parallel arrays; the item view used by
+ * HTL is created once with the tree, so rendering the menu allocates nothing.
+ */
+public final class NavigationTree {
+
+    public static final NavigationTree EMPTY = new NavigationTree(new String[0], new String[0]);
+
+    private final String[] titles;
+    private final String[] urls;
+    private final List<Item> items;
+
+    /**
+     * @param titles The link titles
+     * @param urls The mapped link URLs, at the same index as their title
+     */
+    public NavigationTree(final String[] titles, final String[] urls) {
+        if (titles.length != urls.length) {
+            throw new IllegalArgumentException("Expected as many titles as URLs");
+        }
+        this.titles = titles.clone();
+        this.urls = urls.clone();
+        List<Item> list = new ArrayList<>(titles.length);
+        for (int i = 0; i < titles.length; i++) {
+            list.add(new Item(i));
+        }
+        this.items = Collections.unmodifiableList(list);
+    }
+
+    public int size() {
+        return titles.length;
+    }
+
+    public String getTitle(int index) {
+        return titles[index];
+    }
+
+    public String getUrl(int index) {
+        return urls[index];
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * A link of the menu, backed by the arrays of the tree.
+     */
+    public final class Item {
+
+        private final int index;
+
+        private Item(int index) {
+            this.index = index;
+        }
+
+        public String getTitle() {
+            return titles[index];
+        }
+
+        public String getUrl() {
+            return urls[index];
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.adobe.aem.portfolio.core.services;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Builds and caches the navigation menus of header components.
+ *
+ * The component's aboutUsNavigation items are read once and shared by every
+ * page rendering that header, until the component content changes; the
+ * links are mapped with the resolver of each request.
+ */
+public interface NavigationTreeService {
+
+    /**
+     * Gets the navigation menu of a header component. Each call maps the
+     * links, so callers get the menu once per rendering and keep it.
+     * @param header The header component resource
+     * @return The menu, empty if the component has no navigation items
+     */
+    NavigationTree getTree(Resource header);
+
+    /**
+     * Drops the cached menus of header components at, below or above a path;
+     * "/" drops all menus.
+     * @param path The changed path
+     */
+    void invalidate(String path);
+}
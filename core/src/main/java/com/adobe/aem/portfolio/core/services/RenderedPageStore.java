@@ -0,0 +1,38 @@
+package com.adobe.aem.portfolio.core.services;
+
+/**
+ * Store for rendered portfolio pages.
+ *
+ * Entries are keyed by server name and request URI (e.g.
+ * www.example.com/content/portfolio/us/en.html) and hold the page that was
+ * sent to the browser for that URI, its headers included (see
+ * RenderedPageCacheFilter).
+ */
+public interface RenderedPageStore {
+
+    /**
+     * Gets the cached page for a request.
+     * @param key The server name and request URI
+     * @return The page, or null if the page is not cached
+     */
+    String get(String key);
+
+    /**
+     * Stores the rendered page for a request.
+     * @param key The server name and request URI
+     * @param html The rendered page
+     * @return true if the page was stored, false if it does not fit the store
+     */
+    boolean put(String key, String html);
+
+    /**
+     * Drops all cached pages.
+     */
+    void clear();
+
+    /**
+     * Gets the number of cached pages.
+     * @return The entry count
+     */
+    int size();
+}
@@ -0,0 +1,38 @@
+package com.adobe.aem.portfolio.core.services;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+
+/**
+ * Pool of read-only service resource resolvers for background tasks.
+ *
+ * Resolvers are logged in once and reused; each borrow refreshes the
+ * resolver so it sees the latest persisted content. Use with
+ * try-with-resources:
+ * <pre>
+ * try (ResourceResolverPool.Lease lease = pool.borrow()) {
+ *     Resource resource = lease.getResolver().getResource(path);
+ * }
+ * </pre>
+ */
+public interface ResourceResolverPool {
+
+    /**
+     * Borrows a resolver of the portfolio-content-reader service user.
+     * @return The lease, to be closed when done
+     * @throws LoginException If a new resolver cannot be logged in
+     */
+    Lease borrow() throws LoginException;
+
+    /**
+     * A borrowed resolver; closing the lease returns it to the pool.
+     * The resolver itself must not be closed.
+     */
+    interface Lease extends AutoCloseable {
+
+        ResourceResolver getResolver();
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.adobe.aem.portfolio.core.services;
+
+/**
+ * A page found by the {@link SearchIndex}.
+ */
+public final class SearchHit {
+
+    private final String path;
+    private final String title;
+    private final String url;
+    private final double score;
+
+    public SearchHit(final String path, final String title, final String url, final double score) {
+        this.path = path;
+        this.title = title;
+        this.url = url;
+        this.score = score;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,29 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory full-text index of the portfolio pages, used for typeahead search.
+ *
+ * A page is indexed with its title and description and the text of its Now
+ * section (experiences, projects, skills), Writing section (articles) and
+ * card components, so searching does not query the repository.
+ */
+public interface SearchIndex {
+
+    /**
+     * Finds the best matching pages. Every word of the query has to match a
+     * word of the page; the last word also matches as a prefix.
+     * @param query The search text, e.g. "aem comp"
+     * @param limit The maximum number of hits
+     * @return The hits, best first
+     */
+    List<SearchHit> search(String query, int limit);
+
+    /**
+     * Re-indexes the pages containing the changed resources.
+     * @param paths The changed resource paths
+     */
+    void update(Collection<String> paths);
+}
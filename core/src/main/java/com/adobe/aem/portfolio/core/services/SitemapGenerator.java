@@ -0,0 +1,55 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Generates the sitemap of the portfolio site.
+ *
+ * The sitemap is split into shards of at most a configured number of URLs and
+ * stored as files in the repository. The first update traverses the whole
+ * site; later updates only re-read the pages reported through
+ * {@link #markChanged(String)} and rewrite the shards containing them.
+ */
+public interface SitemapGenerator {
+
+    /**
+     * Gets the path of the page the sitemap is generated for.
+     * @return The site root path, e.g. /content/portfolio/us/en
+     */
+    String getRootPath();
+
+    /**
+     * Records a changed resource; its page is re-read on the next update.
+     * @param path The changed resource path
+     */
+    void markChanged(String path);
+
+    /**
+     * Brings the stored sitemap up to date.
+     */
+    void update();
+
+    /**
+     * Gets the number of stored shards.
+     * @return The shard count, 0 before the first update
+     */
+    int getShardCount();
+
+    /**
+     * Copies a stored shard.
+     * @param shard The shard index
+     * @param out The stream to write to
+     * @return true if the shard exists
+     * @throws IOException If the shard cannot be read or written
+     */
+    boolean writeShard(int shard, OutputStream out) throws IOException;
+
+    /**
+     * Copies the stored sitemap index listing all shards.
+     * @param out The stream to write to
+     * @return true if the index exists
+     * @throws IOException If the index cannot be read or written
+     */
+    boolean writeIndex(OutputStream out) throws IOException;
+}
@@ -0,0 +1,87 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.io.IOException;
+
+import org.apache.sling.api.resource.LoginException;
+
+/**
+ * Exports the portfolio site as static files.
+ *
+ * Every page is rendered to &lt;path&gt;.html in the export directory,
+ * together with the clientlibs, images and documents the pages reference,
+ * under their own URLs, so any static file server can serve the directory
+ * as the site.
+ */
+public interface StaticExporter {
+
+    /**
+     * Exports the site.
+     * @param incremental true to only render the pages modified since the
+     *        previous export and the references not exported yet, false to
+     *        render everything
+     * @return The counts of the export
+     * @throws LoginException If the content cannot be read
+     * @throws IOException If the export directory cannot be written
+     */
+    Result export(boolean incremental) throws LoginException, IOException;
+
+    /**
+     * The counts of an export.
+     */
+    final class Result {
+        private final int rendered;
+        private final int unchanged;
+        private final int removed;
+        private final int references;
+        private final int failed;
+
+        public Result(int rendered, int unchanged, int removed, int references, int failed) {
+            this.rendered = rendered;
+            this.unchanged = unchanged;
+            this.removed = removed;
+            this.references = references;
+            this.failed = failed;
+        }
+
+        /**
+         * @return The number of pages rendered
+         */
+        public int getRendered() {
+            return rendered;
+        }
+
+        /**
+         * @return The number of pages kept from the previous export
+         */
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        /**
+         * @return The number of pages deleted since the previous export
+         */
+        public int getRemoved() {
+            return removed;
+        }
+
+        /**
+         * @return The number of referenced clientlib, image and document files exported
+         */
+        public int getReferences() {
+            return references;
+        }
+
+        /**
+         * @return The number of pages and references that could not be rendered
+         */
+        public int getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return rendered + " pages rendered, " + unchanged + " unchanged, " + removed + " removed, "
+                    + references + " references, " + failed + " failed";
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.adobe.aem.portfolio.core.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Timings of one request or background job.
+ *
+ * LoggingFilter starts a trace per request, stores it in the
+ * {@link #REQUEST_ATTRIBUTE} request attribute and binds it to the request
+ * thread; background jobs start and bind their own. While bound, the trace
+ * id is in the {@value #MDC_KEY} MDC entry of the log messages. Code records
+ * spans with
+ * <pre>
+ * try (Trace.Span span = Trace.current().span("search")) {
+ *     ...
+ * }
+ * </pre>
+ * and the trace is written as one JSON line to the {@value #LOGGER_NAME}
+ * logger when it is finished: at INFO if it was slow, at DEBUG otherwise.
+ * Without a bound trace, or with that logger disabled, spans cost a
+ * nanoTime() call and record nothing.
+ */
+public final class Trace {
+
+    public static final String REQUEST_ATTRIBUTE = Trace.class.getName();
+    public static final String LOGGER_NAME = "com.adobe.aem.portfolio.trace";
+    public static final String MDC_KEY = "traceId";
+
+    static final int MAX_SPANS = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final Trace NONE = new Trace(null, null);
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final String id;
+    private final String name;
+    private final long start = System.nanoTime();
+
+    // guarded by this
+    private final List<Span> spans = new ArrayList<>();
+    private int droppedSpans;
+    private long duration = -1;
+
+    private Trace(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Starts a trace.
+     * @param name The request or job name
+     * @return The trace, recording nothing if the trace logger is disabled
+     */
+    public static Trace start(final String name) {
+        if (!LOG.isInfoEnabled()) {
+            return NONE;
+        }
+        return new Trace(Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE), name);
+    }
+
+    /**
+     * @return The trace bound to the current thread, or one recording nothing
+     */
+    public static Trace current() {
+        Trace trace = CURRENT.get();
+        return trace != null ? trace : NONE;
+    }
+
+    /**
+     * @param request The request
+     * @return The trace of the request, or else the one bound to the current thread
+     */
+    public static Trace of(final ServletRequest request) {
+        Object trace = request.getAttribute(REQUEST_ATTRIBUTE);
+        return trace instanceof Trace ? (Trace) trace : current();
+    }
+
+    /**
+     * Binds the trace to the current thread, also to continue a trace in a
+     * background thread.
+     * @return The scope, restoring the previously bound trace when closed
+     */
+    public Scope bind() {
+        final Trace previous = CURRENT.get();
+        final String previousId = MDC.get(MDC_KEY);
+        CURRENT.set(this);
+        if (id != null) {
+            MDC.put(MDC_KEY, id);
+        }
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            if (previousId != null) {
+                MDC.put(MDC_KEY, previousId);
+            } else {
+                MDC.remove(MDC_KEY);
+            }
+        };
+    }
+
+    /**
+     * Starts a span, which is recorded when closed.
+     * @param spanName The name of the work measured
+     * @return The span
+     */
+    public Span span(final String spanName) {
+        return new Span(id != null ? this : null, spanName);
+    }
+
+    /**
+     * @return The trace id, null if the trace records nothing
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Finishes the trace and writes it to the trace logger.
+     * @param slowThreshold The duration in milliseconds above which it is written at INFO
+     */
+    public void finish(final long slowThreshold) {
+        if (id == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            duration = elapsed;
+        }
+        if (elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThreshold)) {
+            LOG.info("{}", this);
+        } else {
+            LOG.debug("{}", this);
+        }
+    }
+
+    private synchronized void record(final Span span) {
+        if (spans.size() < MAX_SPANS) {
+            spans.add(span);
+        } else {
+            droppedSpans++;
+        }
+    }
+
+    /**
+     * @return The trace as a JSON object, with times in nanoseconds relative to its start
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder json = new StringBuilder(128 + spans.size() * 64);
+        json.append("{\"trace\":\"").append(id).append("\",\"name\":");
+        appendString(json, name);
+        json.append(",\"durationNs\":").append(duration).append(",\"spans\":[");
+        for (int i = 0; i < spans.size(); i++) {
+            Span span = spans.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, span.name);
+            json.append(",\"thread\":");
+            appendString(json, span.thread);
+            json.append(",\"startNs\":").append(span.start - start)
+                    .append(",\"durationNs\":").append(span.duration).append('}');
+        }
+        json.append(']');
+        if (droppedSpans > 0) {
+            json.append(",\"droppedSpans\":").append(droppedSpans);
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * A binding of a trace to a thread.
+     */
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * A timed piece of work.
+     */
+    public static final class Span implements AutoCloseable {
+        private final Trace trace;
+        private final String name;
+        private final String thread;
+        private final long start = System.nanoTime();
+        private long duration = -1;
+
+        Span(Trace trace, String name) {
+            this.trace = trace;
+            this.name = name;
+            this.thread = trace != null ? Thread.currentThread().getName() : null;
+        }
+
+        @Override
+        public void close() {
+            if (trace != null && duration < 0) {
+                duration = System.nanoTime() - start;
+                trace.record(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.Iterator;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ConfigurationPolicy;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+/**
+ * Writes the portfolio loggers to error.log from a background thread.
+ *
+ * Registered as a Logback appender, which the Sling log support attaches to
+ * the loggers of its loggers property, so the existing LOG calls only queue
+ * their event. A Logback AsyncAppender hands the events to the error.log
+ * appender of the root logger, so they end up in the file AEM forwards and
+ * offers for download. While the appender runs, its loggers do not pass
+ * their events on to the root logger, so nothing is written twice.
+ *
+ * Once the queue is 80% full, TRACE, DEBUG and INFO events are discarded;
+ * with never.block, a full queue drops WARN and ERROR events too rather
+ * than making the caller wait. Only active with a configuration.
+ */
+@Component(service = Appender.class, configurationPolicy = ConfigurationPolicy.REQUIRE)
+@Designate(ocd = AsyncLogAppender.Config.class)
+public class AsyncLogAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    @ObjectClassDefinition(name = "Portfolio - Async Log Appender",
+                           description = "Writes the portfolio loggers to error.log from a background thread")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Loggers",
+                             description = "Loggers the Sling log support attaches the appender to")
+        String[] loggers() default { "com.adobe.aem.portfolio" };
+
+        @AttributeDefinition(name = "Target appender",
+                             description = "Appender of the root logger the events are written to; "
+                                     + "the first one if there is none of that name")
+        String target() default "/logs/error.log";
+
+        @AttributeDefinition(name = "Queue size",
+                             description = "Events queued at most")
+        int queue_size() default 8192;
+
+        @AttributeDefinition(name = "Never block",
+                             description = "Drop events when the queue is full instead of waiting")
+        boolean never_block() default true;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private String[] loggers;
+    private String target;
+    private int queueSize;
+    private boolean neverBlock;
+
+    // a new one per start, as an AsyncAppender cannot be attached to an appender again
+    private volatile AsyncAppender queue;
+
+    @Activate
+    protected void activate(final Config config) {
+        loggers = config.loggers().clone();
+        target = config.target();
+        queueSize = Math.max(1, config.queue_size());
+        neverBlock = config.never_block();
+        setName(getClass().getName());
+
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (!(loggerFactory instanceof LoggerContext)) {
+            logger.warn("SLF4J is not bound to Logback, the portfolio loggers stay synchronous");
+            return;
+        }
+        setContext((LoggerContext) loggerFactory);
+        start();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        stop();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        Appender<ILoggingEvent> errorLog = target();
+        if (errorLog == null) {
+            addError("No appender on the root logger to write " + getName() + " to");
+            return;
+        }
+        Forwarder forwarder = new Forwarder(errorLog);
+        forwarder.setContext(getContext());
+        forwarder.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(getContext());
+        async.setName(getName() + ".queue");
+        async.setQueueSize(queueSize);
+        async.setNeverBlock(neverBlock);
+        async.addAppender(forwarder);
+        async.start();
+        queue = async;
+
+        setAdditive(false);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // new events go to the root logger again, the queued ones are written before the queue stops
+        setAdditive(true);
+        super.stop();
+        queue.stop();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        queue.doAppend(event);
+    }
+
+    private Appender<ILoggingEvent> target() {
+        ch.qos.logback.classic.Logger root = ((LoggerContext) getContext()).getLogger(Logger.ROOT_LOGGER_NAME);
+        Appender<ILoggingEvent> appender = root.getAppender(target);
+        if (appender != null) {
+            return appender;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = root.iteratorForAppenders();
+        return appenders.hasNext() ? appenders.next() : null;
+    }
+
+    private void setAdditive(final boolean additive) {
+        for (String name : loggers) {
+            ((LoggerContext) getContext()).getLogger(name).setAdditive(additive);
+        }
+    }
+
+    /**
+     * Writes the events of the queue to the target, and leaves the target
+     * running when the queue stops its appenders.
+     */
+    private static final class Forwarder extends UnsynchronizedAppenderBase<ILoggingEvent> {
+        private final Appender<ILoggingEvent> target;
+
+        Forwarder(Appender<ILoggingEvent> target) {
+            this.target = target;
+        }
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            target.doAppend(event);
+        }
+    }
+}
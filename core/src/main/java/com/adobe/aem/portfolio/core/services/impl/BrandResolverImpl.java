@@ -0,0 +1,179 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.BrandResolver;
+import com.adobe.aem.portfolio.core.services.ResourceResolverPool;
+import com.day.cq.commons.jcr.JcrConstants;
+
+/**
+ * Caches effective brands in a trie of path segments.
+ *
+ * A lookup walks the trie down to the page; on a miss, the page and its
+ * ancestors are read up to the first one with a brand or already in the
+ * trie, and all of them are stored, so the ancestors of a page are read
+ * once. Invalidating a path detaches its trie node, which drops the whole
+ * subtree at once.
+ *
+ * The cache is shared by all users, so pages are read with a pooled
+ * content-reader resolver rather than the one of the caller, whose access
+ * rights could hide the brand of an ancestor. If no such resolver can be
+ * logged in, the caller's resolver is used and nothing is cached.
+ *
+ * Lookups do not lock. A lookup that read the repository only stores its
+ * result if no invalidation happened meanwhile, so a concurrent brand
+ * change is never overwritten by the value read before it.
+ */
+@Component(service = BrandResolver.class)
+public class BrandResolverImpl implements BrandResolver {
+
+    private static final String CONTENT_SEGMENT = "/" + JcrConstants.JCR_CONTENT;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Node root = new Node();
+
+    /** Incremented by every invalidation, guarded by this. */
+    private long generation;
+
+    @Reference
+    private ResourceResolverPool resolverPool;
+
+    @Override
+    public String getBrand(final Resource resource) {
+        String pagePath = pagePath(resource.getPath());
+        Node cached = find(pagePath);
+        if (cached != null && cached.resolved) {
+            return cached.brand;
+        }
+
+        long start;
+        synchronized (this) {
+            start = generation;
+        }
+        List<String> read = new ArrayList<>();
+        String brand;
+        try (ResourceResolverPool.Lease lease = resolverPool.borrow()) {
+            brand = read(lease.getResolver(), pagePath, read);
+        } catch (LoginException e) {
+            logger.warn("Could not read the brand of {} as the content reader, not caching it", pagePath, e);
+            return read(resource.getResourceResolver(), pagePath, read);
+        }
+
+        synchronized (this) {
+            if (generation == start) {
+                for (String path : read) {
+                    Node node = create(path);
+                    node.brand = brand;
+                    node.resolved = true;
+                }
+            }
+        }
+        logger.debug("Resolved brand {} of {} reading {} pages", brand, pagePath, read.size());
+        return brand;
+    }
+
+    /**
+     * Reads the brand of a page from the repository, up to the first ancestor
+     * with a brand or already resolved.
+     * @param read Receives the paths of the pages read
+     */
+    private String read(final ResourceResolver resolver, final String pagePath, final List<String> read) {
+        String brand = null;
+        for (String path = pagePath; path != null; path = parent(path)) {
+            Node ancestor = find(path);
+            if (ancestor != null && ancestor.resolved) {
+                brand = ancestor.brand;
+                break;
+            }
+            read.add(path);
+            Resource content = resolver.getResource(path.equals("/") ? CONTENT_SEGMENT : path + CONTENT_SEGMENT);
+            String own = content != null ? content.getValueMap().get(PROPERTY, String.class) : null;
+            if (own != null && !own.isEmpty()) {
+                brand = own;
+                break;
+            }
+        }
+        return brand;
+    }
+
+    @Override
+    public synchronized void invalidate(final String path) {
+        generation++;
+        String pagePath = pagePath(path);
+        if ("/".equals(pagePath)) {
+            root.children.clear();
+            root.resolved = false;
+            return;
+        }
+        Node parent = find(parent(pagePath));
+        if (parent != null) {
+            parent.children.remove(pagePath.substring(pagePath.lastIndexOf('/') + 1));
+        }
+    }
+
+    private Node find(final String path) {
+        Node node = root;
+        for (String segment : segments(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private Node create(final String path) {
+        Node node = root;
+        for (String segment : segments(path)) {
+            node = node.children.computeIfAbsent(segment, name -> new Node());
+        }
+        return node;
+    }
+
+    private static String[] segments(final String path) {
+        return "/".equals(path) ? new String[0] : path.substring(1).split("/");
+    }
+
+    /**
+     * @return The path of the page of a page, page content or component path
+     */
+    static String pagePath(final String path) {
+        int content = path.indexOf(CONTENT_SEGMENT + "/");
+        if (content < 0 && path.endsWith(CONTENT_SEGMENT)) {
+            content = path.length() - CONTENT_SEGMENT.length();
+        }
+        if (content < 0) {
+            return path;
+        }
+        return content == 0 ? "/" : path.substring(0, content);
+    }
+
+    private static String parent(final String path) {
+        if ("/".equals(path)) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        return slash == 0 ? "/" : path.substring(0, slash);
+    }
+
+    /**
+     * A path segment, with the brand of its path once resolved.
+     */
+    private static final class Node {
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private volatile String brand;
+        private volatile boolean resolved;
+    }
+}
@@ -0,0 +1,119 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.ClientLibraryUrlService;
+import com.adobe.granite.ui.clientlibs.ClientLibrary;
+import com.adobe.granite.ui.clientlibs.HtmlLibrary;
+import com.adobe.granite.ui.clientlibs.HtmlLibraryManager;
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+/**
+ * Fingerprints client libraries with the MD5 of their served content, in the
+ * lc-&lt;hash&gt;-lc selector format of the clientlib proxy. Hashes are kept
+ * per library and recomputed only when the library's last modification changes.
+ */
+@Component(service = ClientLibraryUrlService.class)
+public class ClientLibraryUrlServiceImpl implements ClientLibraryUrlService {
+
+    private static final String APPS_PREFIX = "/apps/";
+    private static final String PROXY_PREFIX = "/etc.clientlibs/";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    @Reference
+    private HtmlLibraryManager htmlLibraryManager;
+
+    @Override
+    public List<String> getUrls(final String[] categories, final LibraryType type) {
+        return getUrls(categories, type, true);
+    }
+
+    @Override
+    public List<String> getUrls(final String[] categories, final LibraryType type, final boolean dependencies) {
+        boolean minified = htmlLibraryManager.isMinifyEnabled();
+        Set<String> urls = new LinkedHashSet<>();
+        for (ClientLibrary library : htmlLibraryManager.getLibraries(categories, type, false, dependencies)) {
+            StringBuilder url = new StringBuilder(getProxiedPath(library));
+            String hash = getHash(library.getPath(), type, minified);
+            if (hash != null) {
+                url.append(".lc-").append(hash).append("-lc");
+            }
+            if (minified) {
+                url.append(".min");
+            }
+            urls.add(url.append(type.extension).toString());
+        }
+        return new ArrayList<>(urls);
+    }
+
+    /**
+     * Clientlibs under /apps are only readable on publish through the /etc.clientlibs proxy.
+     */
+    private String getProxiedPath(final ClientLibrary library) {
+        String path = library.getPath();
+        if (library.allowProxy() && path.startsWith(APPS_PREFIX)) {
+            return PROXY_PREFIX + path.substring(APPS_PREFIX.length());
+        }
+        return path;
+    }
+
+    private String getHash(final String path, final LibraryType type, final boolean minified) {
+        HtmlLibrary library = htmlLibraryManager.getLibrary(type, path);
+        if (library == null) {
+            return null;
+        }
+        String key = path + type.extension + minified;
+        Fingerprint fingerprint = fingerprints.get(key);
+        if (fingerprint == null || fingerprint.lastModified != library.getLastModified()) {
+            try (InputStream content = library.getInputStream(minified)) {
+                fingerprint = new Fingerprint(library.getLastModified(), md5(content));
+                fingerprints.put(key, fingerprint);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                logger.warn("Could not fingerprint client library {}", path, e);
+                return null;
+            }
+        }
+        return fingerprint.hash;
+    }
+
+    private static String md5(final InputStream content) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class Fingerprint {
+        private final long lastModified;
+        private final String hash;
+
+        Fingerprint(long lastModified, String hash) {
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.ResourceResolverPool;
+import com.adobe.aem.portfolio.core.services.Trace;
+
+/**
+ * Fork/join content traversal.
+ *
+ * Each resource is visited by one task, which forks a task per child. An
+ * idle worker steals a forked task and re-reads the child by path with its
+ * own resolver, borrowed from the resolver pool on its first task of the
+ * traversal; tasks run by the worker that forked them reuse the resource.
+ * Once a worker has max.queued.tasks tasks waiting, it walks further
+ * children inline instead of forking, so the queues stay short however wide
+ * the tree is. The trace of the caller is bound to the workers while they
+ * run its tasks.
+ *
+ * Each worker holds a pooled resolver for the whole traversal, so the
+ * parallelism must stay below the resolver pool size: the default of 3
+ * leaves one of the 4 pooled resolvers to the other borrowers, such as the
+ * search index, instead of making them wait for a temporary one.
+ */
+@Component(service = ContentTraversal.class)
+@Designate(ocd = ContentTraversalImpl.Config.class)
+public class ContentTraversalImpl implements ContentTraversal {
+
+    @ObjectClassDefinition(name = "Portfolio - Content Traversal",
+                           description = "Parallel walks of content subtrees")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Parallelism",
+                             description = "Number of worker threads, below the resolver pool size")
+        int parallelism() default 3;
+
+        @AttributeDefinition(name = "Maximum queued tasks",
+                             description = "Queued tasks per worker above which children are walked inline")
+        int max_queued_tasks() default 4;
+    }
+
+    @Reference
+    private ResourceResolverPool resolverPool;
+
+    private ForkJoinPool workers;
+    private int maxQueuedTasks;
+
+    @Activate
+    protected void activate(final Config config) {
+        maxQueuedTasks = Math.max(1, config.max_queued_tasks());
+        workers = new ForkJoinPool(Math.max(1, config.parallelism()), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("portfolio-traversal-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public long traverse(final String rootPath, final Visitor visitor) throws LoginException {
+        Future<Long> traversal = start(rootPath, visitor);
+        try {
+            return traversal.get();
+        } catch (InterruptedException e) {
+            traversal.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Traversal of " + rootPath + " interrupted");
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof LoginException) {
+                    throw (LoginException) cause;
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public Future<Long> start(final String rootPath, final Visitor visitor) {
+        Walk walk = new Walk(visitor, Trace.current());
+        return new Traversal(walk, workers.submit(new RootTask(walk, rootPath)));
+    }
+
+    /**
+     * The state shared by the tasks of one traversal.
+     */
+    private final class Walk {
+        private final Visitor visitor;
+        private final Trace trace;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final LongAdder visited = new LongAdder();
+        // only ever read and written by the worker thread of the key
+        private final Map<Thread, ResourceResolverPool.Lease> leases = new ConcurrentHashMap<>();
+
+        Walk(Visitor visitor, Trace trace) {
+            this.visitor = visitor;
+            this.trace = trace;
+        }
+
+        ResourceResolver resolver() {
+            Thread worker = Thread.currentThread();
+            ResourceResolverPool.Lease lease = leases.get(worker);
+            if (lease == null) {
+                try {
+                    lease = resolverPool.borrow();
+                } catch (LoginException e) {
+                    throw new LoginFailure(e);
+                }
+                leases.put(worker, lease);
+            }
+            return lease.getResolver();
+        }
+
+        void close() {
+            for (ResourceResolverPool.Lease lease : leases.values()) {
+                lease.close();
+            }
+            leases.clear();
+        }
+    }
+
+    private final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Walk walk;
+        private final String rootPath;
+
+        RootTask(Walk walk, String rootPath) {
+            this.walk = walk;
+            this.rootPath = rootPath;
+        }
+
+        @Override
+        protected Long compute() {
+            try (Trace.Scope scope = walk.trace.bind();
+                    Trace.Span span = walk.trace.span("traversal " + rootPath)) {
+                Resource root = walk.resolver().getResource(rootPath);
+                if (root != null) {
+                    new NodeTask(walk, root).invoke();
+                }
+                return walk.visited.sum();
+            } finally {
+                // every task has been joined, no worker uses its resolver anymore
+                walk.close();
+            }
+        }
+    }
+
+    private final class NodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Walk walk;
+        private final transient Resource resource;
+        private final transient Thread owner;
+
+        NodeTask(Walk walk, Resource resource) {
+            this.walk = walk;
+            this.resource = resource;
+            this.owner = Thread.currentThread();
+        }
+
+        @Override
+        protected void compute() {
+            List<NodeTask> forked = new ArrayList<>();
+            RuntimeException failure = null;
+            try (Trace.Scope scope = walk.trace.bind()) {
+                Resource own = Thread.currentThread() == owner
+                        ? resource
+                        : walk.resolver().getResource(resource.getPath());
+                if (own != null) {
+                    visit(own, forked);
+                }
+            } catch (RuntimeException e) {
+                walk.stopped.set(true);
+                failure = e;
+            }
+            // join everything forked, even after a failure, so no task outlives the walk
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                try {
+                    forked.get(i).join();
+                } catch (RuntimeException e) {
+                    walk.stopped.set(true);
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void visit(final Resource current, final List<NodeTask> forked) {
+            if (walk.stopped.get()) {
+                return;
+            }
+            Action action = walk.visitor.visit(current);
+            walk.visited.increment();
+            if (action == Action.STOP) {
+                walk.stopped.set(true);
+                return;
+            }
+            if (action == Action.SKIP_CHILDREN) {
+                return;
+            }
+            for (Resource child : current.getChildren()) {
+                if (walk.stopped.get()) {
+                    return;
+                }
+                if (getSurplusQueuedTaskCount() < maxQueuedTasks) {
+                    NodeTask task = new NodeTask(walk, child);
+                    task.fork();
+                    forked.add(task);
+                } else {
+                    visit(child, forked);
+                }
+            }
+        }
+    }
+
+    private static final class Traversal implements Future<Long> {
+        private final Walk walk;
+        private final ForkJoinTask<Long> task;
+
+        Traversal(Walk walk, ForkJoinTask<Long> task) {
+            this.walk = walk;
+            this.task = task;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            if (task.isDone()) {
+                return false;
+            }
+            walk.cancelled.set(true);
+            walk.stopped.set(true);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return walk.cancelled.get();
+        }
+
+        @Override
+        public boolean isDone() {
+            return walk.cancelled.get() || task.isDone();
+        }
+
+        @Override
+        public Long get() throws InterruptedException, ExecutionException {
+            Long visited = task.get();
+            return checkCancelled(visited);
+        }
+
+        @Override
+        public Long get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            Long visited = task.get(timeout, unit);
+            return checkCancelled(visited);
+        }
+
+        private Long checkCancelled(final Long visited) {
+            if (walk.cancelled.get()) {
+                throw new CancellationException();
+            }
+            return visited;
+        }
+    }
+
+    /**
+     * Carries a LoginException out of a worker.
+     */
+    private static final class LoginFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LoginFailure(LoginException cause) {
+            super(cause);
+        }
+    }
+}
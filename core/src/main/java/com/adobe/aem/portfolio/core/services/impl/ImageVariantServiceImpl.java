@@ -0,0 +1,462 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+
+/**
+ * Image variants encoded with the ImageIO writers of the platform.
+ *
+ * The JDK only ships JPEG and PNG writers, so the components link to JPEG
+ * and PNG variants; .webp and .avif variant URLs are only served once an
+ * ImageIO plugin providing a writer for image/webp or image/avif is
+ * installed. Large originals are decoded with source subsampling to
+ * about twice the target width, so a 6000 pixel photo does not need its
+ * full size in memory, and at most max.concurrent.encodings images are
+ * decoded at a time. Concurrent requests for the same variant wait for one
+ * encoding.
+ *
+ * Variants are files named after a hash of the asset path, the hash of the
+ * original binary, the width and the format, so a changed original never
+ * hits an old variant. The cache evicts the least recently served files
+ * once it exceeds cache.size.mb; after a restart, the files found are
+ * ordered by their modification time.
+ */
+@Component(service = ImageVariantService.class)
+@Designate(ocd = ImageVariantServiceImpl.Config.class)
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+    @ObjectClassDefinition(name = "Portfolio - Image Variants",
+                           description = "Resized, re-encoded images served from a disk cache")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Widths",
+                             description = "Widths variants are generated for")
+        int[] widths() default { 160, 320, 640, 960, 1280, 1920 };
+
+        @AttributeDefinition(name = "Cache directory",
+                             description = "Directory of the cached variants, relative to the Sling home")
+        String cache_directory() default "portfolio/image-cache";
+
+        @AttributeDefinition(name = "Cache size (MB)",
+                             description = "Size above which the least recently served variants are deleted")
+        int cache_size_mb() default 256;
+
+        @AttributeDefinition(name = "Maximum concurrent encodings",
+                             description = "Number of images decoded and encoded at the same time")
+        int max_concurrent_encodings() default 2;
+
+        @AttributeDefinition(name = "Quality",
+                             description = "Compression quality of the lossy formats, from 0 to 1")
+        double quality() default 0.8;
+    }
+
+    static final String AVIF = "image/avif";
+    static final String WEBP = "image/webp";
+    static final String JPEG = "image/jpeg";
+    static final String PNG = "image/png";
+
+    private static final String DAM_ROOT = "/content/dam/";
+    private static final String DAM_SHA1 = "dam:sha1";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Set<String> IMAGE_EXTENSIONS =
+            new HashSet<>(Arrays.asList(".jpg", ".jpeg", ".png", ".gif"));
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // file name -> size, in access order; guarded by itself
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, FutureTask<Path>> encoding = new ConcurrentHashMap<>();
+
+    private int[] widths;
+    private Path directory;
+    private long capacity;
+    private long cachedBytes;
+    private Semaphore encodings;
+    private float quality;
+    private Set<String> modernFormats;
+
+    @Activate
+    protected void activate(final BundleContext bundleContext, final Config config) throws IOException {
+        String slingHome = bundleContext.getProperty("sling.home");
+        Path cacheDirectory = Paths.get(slingHome != null ? slingHome : ".").resolve(config.cache_directory());
+        open(cacheDirectory, config);
+    }
+
+    void open(final Path cacheDirectory, final Config config) throws IOException {
+        widths = config.widths().clone();
+        Arrays.sort(widths);
+        directory = cacheDirectory;
+        capacity = config.cache_size_mb() * 1024L * 1024L;
+        encodings = new Semaphore(Math.max(1, config.max_concurrent_encodings()));
+        quality = (float) config.quality();
+        modernFormats = new HashSet<>();
+        for (String format : new String[] { AVIF, WEBP }) {
+            if (ImageIO.getImageWritersByMIMEType(format).hasNext()) {
+                modernFormats.add(format);
+            }
+        }
+        Files.createDirectories(directory);
+        restore();
+        logger.info("Image variant cache opened at {} with {} files, modern formats: {}",
+                directory, files.size(), modernFormats);
+    }
+
+    @Override
+    public String getUrl(final String path, final int width) {
+        if (path == null || !path.startsWith(DAM_ROOT)) {
+            return path;
+        }
+        String extension = extension(path).toLowerCase(Locale.ENGLISH);
+        if (!IMAGE_EXTENSIONS.contains(extension)) {
+            return path;
+        }
+        // gif variants are encoded as png
+        return path + '.' + SELECTOR + '.' + bucket(width) + (".gif".equals(extension) ? ".png" : extension);
+    }
+
+    @Override
+    public int[] getWidths() {
+        return widths.clone();
+    }
+
+    @Override
+    public String getFormat(final String originalType) {
+        // keep transparency of png and gif
+        return PNG.equals(originalType) || "image/gif".equals(originalType) ? PNG : JPEG;
+    }
+
+    @Override
+    public String getFormatOfExtension(final String extension) {
+        switch (extension != null ? extension.toLowerCase(Locale.ENGLISH) : "") {
+            case "jpg":
+            case "jpeg":
+                return JPEG;
+            case "png":
+                return PNG;
+            case "webp":
+                return modernFormats.contains(WEBP) ? WEBP : null;
+            case "avif":
+                return modernFormats.contains(AVIF) ? AVIF : null;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Variant getVariant(final Asset asset, final int width, final String format) throws IOException {
+        String name = name(asset, width, format);
+        Path file = directory.resolve(name);
+        if (touch(name, file)) {
+            return new CachedVariant(file, format, name);
+        }
+
+        FutureTask<Path> task = new FutureTask<>(() -> encode(asset, width, format, name));
+        FutureTask<Path> running = encoding.putIfAbsent(name, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                encoding.remove(name, task);
+            }
+        }
+        try {
+            Path encoded = running.get();
+            return encoded != null ? new CachedVariant(encoded, format, name) : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + asset.getPath());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Cannot encode " + asset.getPath(), cause);
+        }
+    }
+
+    @Override
+    public boolean isCached(final Asset asset, final int width, final String format) {
+        String name = name(asset, width, format);
+        synchronized (files) {
+            // containsKey leaves the access order alone
+            if (!files.containsKey(name)) {
+                return false;
+            }
+        }
+        return Files.exists(directory.resolve(name));
+    }
+
+    @Override
+    public int bucket(final int width) {
+        for (int bucket : widths) {
+            if (bucket >= width) {
+                return bucket;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    private Path encode(final Asset asset, final int width, final String format, final String name)
+            throws IOException {
+        Rendition original = asset.getOriginal();
+        if (original == null) {
+            return null;
+        }
+        try {
+            encodings.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to encode " + asset.getPath());
+        }
+        try (Trace.Span span = Trace.current().span("image variant " + width)) {
+            BufferedImage image;
+            try (InputStream in = original.getStream()) {
+                image = decode(in, width);
+            }
+            if (image == null) {
+                return null;
+            }
+            image = scale(image, Math.min(width, image.getWidth()), !JPEG.equals(format));
+
+            Path file = directory.resolve(name);
+            Path temp = Files.createTempFile(directory, name, TEMP_SUFFIX);
+            try {
+                write(image, format, temp);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            add(name, Files.size(file));
+            logger.debug("Encoded {} of {} in {}", name, asset.getPath(), format);
+            return file;
+        } finally {
+            encodings.release();
+        }
+    }
+
+    /**
+     * Decodes the image, skipping pixels of originals larger than twice the
+     * target width.
+     */
+    private static BufferedImage decode(final InputStream in, final int width) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, reader.getWidth(0) / (width * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales down in halving steps, which keeps bilinear interpolation sharp.
+     */
+    private static BufferedImage scale(final BufferedImage image, final int width, final boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        // draw at least once, which also converts to the pixel type of the format
+        do {
+            int next = Math.max(width, current.getWidth() / 2);
+            int height = Math.max(1, (int) Math.round((double) image.getHeight() * next / image.getWidth()));
+            BufferedImage scaled = new BufferedImage(next, height, type);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, next, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private void write(final BufferedImage image, final String format, final Path file) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No ImageIO writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(file.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!PNG.equals(format) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private boolean touch(final String name, final Path file) {
+        synchronized (files) {
+            if (files.get(name) == null) {
+                return false;
+            }
+        }
+        return Files.exists(file);
+    }
+
+    private void add(final String name, final long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (files) {
+            Long previous = files.put(name, size);
+            cachedBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+            while (cachedBytes > capacity && files.size() > 1) {
+                Map.Entry<String, Long> entry = eldest.next();
+                cachedBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String file : evicted) {
+            try {
+                Files.deleteIfExists(directory.resolve(file));
+            } catch (IOException e) {
+                logger.warn("Could not delete image variant {}", file, e);
+            }
+        }
+    }
+
+    private void restore() throws IOException {
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // left over by an encoding that did not finish
+                    Files.deleteIfExists(file);
+                } else {
+                    found.add(file);
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+        for (Path file : found) {
+            add(file.getFileName().toString(), Files.size(file));
+        }
+    }
+
+    private static String name(final Asset asset, final int width, final String format) {
+        return key(asset, width, format) + '.' + format.substring(format.indexOf('/') + 1);
+    }
+
+    private static String key(final Asset asset, final int width, final String format) {
+        String version = asset.getMetadataValue(DAM_SHA1);
+        if (version == null || version.isEmpty()) {
+            version = Long.toString(asset.getLastModified());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest((asset.getPath() + '\n' + version + '\n' + width + '\n' + format)
+                    .getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private static String extension(final String path) {
+        int dot = path.lastIndexOf('.');
+        return dot > path.lastIndexOf('/') ? path.substring(dot) : "";
+    }
+
+    private static final class CachedVariant implements Variant {
+        private final Path file;
+        private final String mimeType;
+        private final String etag;
+
+        CachedVariant(Path file, String mimeType, String name) {
+            this.file = file;
+            this.mimeType = mimeType;
+            this.etag = '"' + name.substring(0, name.indexOf('.')) + '"';
+        }
+
+        @Override
+        public Path getFile() {
+            return file;
+        }
+
+        @Override
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        @Override
+        public String getETag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+
+/**
+ * Link resolver with a bounded, least recently used cache of mapped links.
+ *
+ * A batch takes the cache lock once for its lookups and once to store the
+ * misses; the misses themselves are mapped outside the lock, and are not
+ * stored if the cache was invalidated meanwhile.
+ */
+@Component(service = LinkResolver.class)
+@Designate(ocd = LinkResolverImpl.Config.class)
+public class LinkResolverImpl implements LinkResolver {
+
+    @ObjectClassDefinition(name = "Portfolio - Link Resolver",
+                           description = "Maps authored links to publish URLs")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cache size",
+                             description = "Maximum number of resolved links kept in memory")
+        int cache_size() default DEFAULT_CACHE_SIZE;
+    }
+
+    static final int DEFAULT_CACHE_SIZE = 2000;
+
+    private static final String CONTENT_ROOT = "/content/";
+    private static final String DAM_ROOT = "/content/dam/";
+    private static final String HTML_EXTENSION = ".html";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // guarded by this
+    private Map<String, String> cache = createCache(DEFAULT_CACHE_SIZE);
+    /** Incremented by every invalidation. */
+    private long generation;
+
+    @Activate
+    @Modified
+    protected void activate(final Config config) {
+        synchronized (this) {
+            cache = createCache(config.cache_size());
+            generation++;
+        }
+    }
+
+    @Override
+    public String[] resolve(final ResourceResolver resolver, final String... links) {
+        String[] resolved = new String[links.length];
+        boolean misses = false;
+        long start;
+        synchronized (this) {
+            start = generation;
+            for (int i = 0; i < links.length; i++) {
+                if (isMapped(links[i])) {
+                    resolved[i] = cache.get(links[i]);
+                    misses |= resolved[i] == null;
+                } else {
+                    resolved[i] = links[i];
+                }
+            }
+        }
+        if (!misses) {
+            return resolved;
+        }
+        for (int i = 0; i < links.length; i++) {
+            if (resolved[i] == null && links[i] != null) {
+                resolved[i] = map(resolver, links[i]);
+            }
+        }
+        synchronized (this) {
+            // mapped with the mapping from before the invalidation
+            if (generation != start) {
+                return resolved;
+            }
+            for (int i = 0; i < links.length; i++) {
+                if (isMapped(links[i])) {
+                    cache.put(links[i], resolved[i]);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public synchronized void invalidate() {
+        logger.debug("Dropping {} resolved links", cache.size());
+        cache.clear();
+        generation++;
+    }
+
+    private static boolean isMapped(final String link) {
+        return link != null && link.startsWith(CONTENT_ROOT) && !link.startsWith(DAM_ROOT);
+    }
+
+    static String map(final ResourceResolver resolver, final String link) {
+        int end = indexOfAny(link, '?', '#');
+        String path = link.substring(0, end);
+        String suffix = link.substring(end);
+        if (path.lastIndexOf('.') < path.lastIndexOf('/')) {
+            path += HTML_EXTENSION;
+        }
+        return resolver.map(path) + suffix;
+    }
+
+    private static int indexOfAny(final String value, final char... chars) {
+        for (int i = 0; i < value.length(); i++) {
+            for (char c : chars) {
+                if (value.charAt(i) == c) {
+                    return i;
+                }
+            }
+        }
+        return value.length();
+    }
+
+    private static Map<String, String> createCache(final int maxSize) {
+        return new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+}
@@ -0,0 +1,340 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.RenderedPageStore;
+
+/**
+ * Rendered page store backed by a memory-mapped file under the Sling home.
+ *
+ * File layout:
+ * - header: magic (int), version (int), write position (long)
+ * - records: state (byte), key length (int), body length (int), key bytes, body bytes
+ *
+ * Records are appended at the write position. Removed records are only
+ * flagged as dead; when the file is full, the least recently used pages are
+ * evicted and the live records are compacted to the start of the file.
+ * On activation the file is scanned once to rebuild the key index, so a
+ * restarted instance serves the pages it had before.
+ *
+ * Eviction is a segmented LRU: new pages enter the probation segment and
+ * are promoted to the protected segment on their second hit. The protected
+ * segment is capped at a share of the capacity, overflow is demoted back to
+ * probation, and victims are always taken from probation first.
+ */
+@Component(service = RenderedPageStore.class)
+@Designate(ocd = MappedRenderedPageStore.Config.class)
+public class MappedRenderedPageStore implements RenderedPageStore {
+
+    @ObjectClassDefinition(name = "Portfolio - Rendered Page Store",
+                           description = "Memory-mapped store for rendered portfolio pages")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Store file",
+                             description = "Path of the store file, relative to the Sling home")
+        String store_file() default "portfolio/rendered-pages.bin";
+
+        @AttributeDefinition(name = "Capacity (MB)",
+                             description = "Size of the memory-mapped store file")
+        int capacity_mb() default 64;
+
+        @AttributeDefinition(name = "Protected segment ratio",
+                             description = "Share of the capacity kept for pages requested more than once")
+        double protected_ratio() default 0.8;
+    }
+
+    static final int MAGIC = 0x50504331;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 9;
+
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Entry> protectedSegment = new LinkedHashMap<>(64, 0.75f, true);
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long capacity;
+    private long protectedCapacity;
+    private long writePosition;
+    private long liveBytes;
+    private long protectedBytes;
+
+    @Activate
+    protected void activate(final BundleContext bundleContext, final Config config) throws IOException {
+        String slingHome = bundleContext.getProperty("sling.home");
+        Path file = Paths.get(slingHome != null ? slingHome : ".").resolve(config.store_file());
+        open(file, config.capacity_mb() * 1024L * 1024L, config.protected_ratio());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        close();
+    }
+
+    synchronized void open(final Path file, final long capacity, final double protectedRatio) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.capacity = capacity;
+        this.protectedCapacity = (long) (capacity * protectedRatio);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        restore();
+        logger.info("Rendered page store opened at {} with {} pages", file, probation.size());
+    }
+
+    synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close rendered page store", e);
+            }
+            channel = null;
+        }
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public synchronized String get(final String key) {
+        if (buffer == null || key == null) {
+            return null;
+        }
+        Entry entry = probation.remove(key);
+        if (entry != null) {
+            protectedSegment.put(key, entry);
+            protectedBytes += entry.size();
+            balance();
+        } else {
+            entry = protectedSegment.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        byte[] body = new byte[entry.bodyLength];
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) (entry.offset + RECORD_HEADER_SIZE + entry.keyLength));
+        view.get(body);
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized boolean put(final String key, final String html) {
+        if (buffer == null || key == null || html == null) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        long size = (long) RECORD_HEADER_SIZE + keyBytes.length + body.length;
+        if (size > capacity - HEADER_SIZE) {
+            return false;
+        }
+
+        remove(key);
+        if (writePosition + size > capacity) {
+            while (liveBytes + size > capacity - HEADER_SIZE && evictOne()) {
+                // evict until the record fits after compaction
+            }
+            compact();
+        }
+
+        int offset = (int) writePosition;
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.put(LIVE);
+        view.putInt(keyBytes.length);
+        view.putInt(body.length);
+        view.put(keyBytes);
+        view.put(body);
+        writePosition += size;
+        buffer.putLong(8, writePosition);
+
+        probation.put(key, new Entry(offset, keyBytes.length, body.length));
+        liveBytes += size;
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        if (buffer == null) {
+            return;
+        }
+        probation.clear();
+        protectedSegment.clear();
+        liveBytes = 0;
+        protectedBytes = 0;
+        writePosition = HEADER_SIZE;
+        buffer.putLong(8, writePosition);
+    }
+
+    @Override
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Rebuilds the index from the records in the file, or formats a new file.
+     */
+    private void restore() {
+        probation.clear();
+        protectedSegment.clear();
+        liveBytes = 0;
+        protectedBytes = 0;
+
+        long storedPosition = buffer.getLong(8);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || storedPosition < HEADER_SIZE || storedPosition > capacity) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            writePosition = HEADER_SIZE;
+            buffer.putLong(8, writePosition);
+            return;
+        }
+
+        long position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= storedPosition) {
+            int offset = (int) position;
+            byte state = buffer.get(offset);
+            int keyLength = buffer.getInt(offset + 1);
+            int bodyLength = buffer.getInt(offset + 5);
+            long size = (long) RECORD_HEADER_SIZE + keyLength + bodyLength;
+            if (keyLength < 0 || bodyLength < 0 || position + size > storedPosition) {
+                logger.warn("Truncating rendered page store at corrupt record offset {}", position);
+                break;
+            }
+            if (state == LIVE) {
+                byte[] keyBytes = new byte[keyLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(offset + RECORD_HEADER_SIZE);
+                view.get(keyBytes);
+                Entry previous = probation.put(new String(keyBytes, StandardCharsets.UTF_8),
+                        new Entry(offset, keyLength, bodyLength));
+                if (previous != null) {
+                    buffer.put(previous.offset, DEAD);
+                    liveBytes -= previous.size();
+                }
+                liveBytes += size;
+            }
+            position += size;
+        }
+        writePosition = position;
+        buffer.putLong(8, writePosition);
+    }
+
+    private void remove(final String key) {
+        Entry entry = probation.remove(key);
+        if (entry == null) {
+            entry = protectedSegment.remove(key);
+            if (entry != null) {
+                protectedBytes -= entry.size();
+            }
+        }
+        if (entry != null) {
+            buffer.put(entry.offset, DEAD);
+            liveBytes -= entry.size();
+        }
+    }
+
+    /**
+     * Evicts the least recently used page, taking victims from probation first.
+     * @return false if the store is empty
+     */
+    private boolean evictOne() {
+        LinkedHashMap<String, Entry> segment = probation.isEmpty() ? protectedSegment : probation;
+        Iterator<Map.Entry<String, Entry>> eldest = segment.entrySet().iterator();
+        if (!eldest.hasNext()) {
+            return false;
+        }
+        remove(eldest.next().getKey());
+        return true;
+    }
+
+    /**
+     * Demotes the least recently used protected pages while the protected segment is over its share.
+     */
+    private void balance() {
+        Iterator<Map.Entry<String, Entry>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedBytes > protectedCapacity && eldest.hasNext()) {
+            Map.Entry<String, Entry> demoted = eldest.next();
+            eldest.remove();
+            protectedBytes -= demoted.getValue().size();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    /**
+     * Moves all live records to the start of the file, in file order.
+     */
+    private void compact() {
+        List<Entry> live = new ArrayList<>(probation.values());
+        live.addAll(protectedSegment.values());
+        live.sort((a, b) -> Integer.compare(a.offset, b.offset));
+
+        int cursor = HEADER_SIZE;
+        for (Entry entry : live) {
+            int size = (int) entry.size();
+            if (entry.offset != cursor) {
+                byte[] record = new byte[size];
+                ByteBuffer view = buffer.duplicate();
+                view.position(entry.offset);
+                view.get(record);
+                view.position(cursor);
+                view.put(record);
+                entry.offset = cursor;
+            }
+            cursor += size;
+        }
+        writePosition = cursor;
+        buffer.putLong(8, writePosition);
+    }
+
+    private static final class Entry {
+        private int offset;
+        private final int keyLength;
+        private final int bodyLength;
+
+        Entry(int offset, int keyLength, int bodyLength) {
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.bodyLength = bodyLength;
+        }
+
+        long size() {
+            return (long) RECORD_HEADER_SIZE + keyLength + bodyLength;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.script.Bindings;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.scripting.sightly.render.RenderContext;
+import org.apache.sling.scripting.sightly.use.ProviderOutcome;
+import org.apache.sling.scripting.sightly.use.UseProvider;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.ModelCache;
+
+/**
+ * Keeps the models of a request in a map stored as request attribute, which
+ * included requests share with the page request.
+ *
+ * As HTL use provider, ranked just before the Sling Models provider, it
+ * answers data-sly-use of the configured model classes from the cache, and
+ * leaves everything else, and uses with arguments, to the other providers.
+ */
+@Component(service = { ModelCache.class, UseProvider.class },
+           property = Constants.SERVICE_RANKING + ":Integer=" + ModelCacheImpl.RANKING)
+@Designate(ocd = ModelCacheImpl.Config.class)
+public class ModelCacheImpl implements ModelCache, UseProvider {
+
+    @ObjectClassDefinition(name = "Portfolio - Model Cache",
+                           description = "Adapts the configured models once per request")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Model classes",
+                             description = "Models cached for data-sly-use, which must only depend on the resource")
+        String[] model_classes() default {
+                "com.adobe.aem.portfolio.core.models.PortfolioHeaderModel",
+                "com.adobe.aem.portfolio.core.models.FooterModel",
+                "com.adobe.aem.portfolio.core.models.HeaderComponentModel",
+                "com.adobe.aem.portfolio.core.models.HeaderComponent2Model"
+        };
+    }
+
+    /** Just before the Sling Models use provider, ranked 95. */
+    static final int RANKING = 96;
+
+    static final String REQUEST_ATTRIBUTE = ModelCacheImpl.class.getName();
+
+    // caches failed adaptations too
+    private static final Object NONE = new Object();
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final LongAdder avoided = new LongAdder();
+
+    private volatile Set<String> modelClasses;
+
+    @Activate
+    @Modified
+    protected void activate(final Config config) {
+        modelClasses = new HashSet<>(Arrays.asList(config.model_classes()));
+    }
+
+    @Override
+    public <T> T adapt(final SlingHttpServletRequest request, final Resource resource, final Class<T> type) {
+        if (request == null) {
+            return resource.adaptTo(type);
+        }
+        Models models = models(request);
+        String key = type.getName() + ':' + resource.getPath();
+        Object model = models.get(key);
+        if (model == null) {
+            T adapted = resource.adaptTo(type);
+            models.put(key, adapted != null ? adapted : NONE);
+            return adapted;
+        }
+        models.avoided++;
+        avoided.increment();
+        logger.debug("Reused {} of {}, {} adaptations avoided in this request",
+                type.getSimpleName(), resource.getPath(), models.avoided);
+        return model != NONE ? type.cast(model) : null;
+    }
+
+    @Override
+    public long getAvoidedAdaptations() {
+        return avoided.sum();
+    }
+
+    @Override
+    public ProviderOutcome provide(final String identifier, final RenderContext renderContext,
+            final Bindings arguments) {
+        if (!modelClasses.contains(identifier) || (arguments != null && !arguments.isEmpty())) {
+            return ProviderOutcome.failure();
+        }
+        Bindings bindings = renderContext.getBindings();
+        Object request = bindings.get(SlingBindings.REQUEST);
+        Object resource = bindings.get(SlingBindings.RESOURCE);
+        if (!(request instanceof SlingHttpServletRequest) || !(resource instanceof Resource)) {
+            return ProviderOutcome.failure();
+        }
+        Class<?> type;
+        try {
+            type = getClass().getClassLoader().loadClass(identifier);
+        } catch (ClassNotFoundException e) {
+            return ProviderOutcome.failure(e);
+        }
+        Object model = adapt((SlingHttpServletRequest) request, (Resource) resource, type);
+        // let the Sling Models provider report why the model cannot be adapted
+        return model != null ? ProviderOutcome.success(model) : ProviderOutcome.failure();
+    }
+
+    private static Models models(final SlingHttpServletRequest request) {
+        Object models = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (models instanceof Models) {
+            return (Models) models;
+        }
+        Models created = new Models();
+        request.setAttribute(REQUEST_ATTRIBUTE, created);
+        return created;
+    }
+
+    private static final class Models extends HashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        private int avoided;
+    }
+}
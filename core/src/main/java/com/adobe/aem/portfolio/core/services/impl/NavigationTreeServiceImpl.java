@@ -0,0 +1,107 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.NavigationTree;
+import com.adobe.aem.portfolio.core.services.NavigationTreeService;
+
+/**
+ * Caches the authored items of header navigation menus by component path.
+ *
+ * Only titles and authored links are shared; the links are mapped for each
+ * request with the resolver of the request, through the cache of the
+ * {@link LinkResolver}. A menu read while an invalidation runs is not
+ * cached, so it cannot replace the invalidation with stale items.
+ */
+@Component(service = NavigationTreeService.class)
+public class NavigationTreeServiceImpl implements NavigationTreeService {
+
+    static final String NAVIGATION = "aboutUsNavigation";
+    static final String TITLE = "aboutUsNavTitle";
+    static final String URL = "aboutUsSubNavUrl";
+
+    private static final String ROOT = "/";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, Menu> menus = new ConcurrentHashMap<>();
+
+    /** Incremented by every invalidation, guarded by this. */
+    private long generation;
+
+    @Reference
+    private LinkResolver linkResolver;
+
+    @Override
+    public NavigationTree getTree(final Resource header) {
+        Menu menu = menus.get(header.getPath());
+        if (menu == null) {
+            long start;
+            synchronized (this) {
+                start = generation;
+            }
+            menu = read(header);
+            synchronized (this) {
+                if (generation == start) {
+                    menus.put(header.getPath(), menu);
+                }
+            }
+            logger.debug("Read navigation of {} with {} items", header.getPath(), menu.titles.length);
+        }
+        if (menu.titles.length == 0) {
+            return NavigationTree.EMPTY;
+        }
+        return new NavigationTree(menu.titles, linkResolver.resolve(header.getResourceResolver(), menu.links));
+    }
+
+    @Override
+    public synchronized void invalidate(final String path) {
+        generation++;
+        menus.keySet().removeIf(key -> isSameOrDescendant(key, path) || isSameOrDescendant(path, key));
+    }
+
+    private static Menu read(final Resource header) {
+        Resource navigation = header.getChild(NAVIGATION);
+        if (navigation == null) {
+            return Menu.EMPTY;
+        }
+        List<String> titles = new ArrayList<>();
+        List<String> links = new ArrayList<>();
+        for (Resource item : navigation.getChildren()) {
+            ValueMap properties = item.getValueMap();
+            titles.add(properties.get(TITLE, ""));
+            links.add(properties.get(URL, String.class));
+        }
+        return new Menu(titles.toArray(new String[0]), links.toArray(new String[0]));
+    }
+
+    private static boolean isSameOrDescendant(final String path, final String ancestor) {
+        return path.equals(ancestor) || ROOT.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    /**
+     * The authored items of a menu.
+     */
+    private static final class Menu {
+        private static final Menu EMPTY = new Menu(new String[0], new String[0]);
+
+        private final String[] titles;
+        private final String[] links;
+
+        Menu(String[] titles, String[] links) {
+            this.titles = titles;
+            this.links = links;
+        }
+    }
+}
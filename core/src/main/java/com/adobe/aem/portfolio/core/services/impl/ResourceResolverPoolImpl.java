@@ -0,0 +1,183 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.ResourceResolverPool;
+
+/**
+ * Bounded pool of content-reader service resolvers.
+ *
+ * At most pool.size resolvers are lent at a time; further borrowers wait up
+ * to borrow.timeout and then get a temporary resolver that is closed on
+ * return, so background work slows down instead of failing. Idle resolvers
+ * are closed and replaced once they are older than max.age, which bounds how
+ * long a session is kept open. Resolvers returned after the pool is
+ * deactivated are closed rather than pooled.
+ */
+@Component(service = ResourceResolverPool.class)
+@Designate(ocd = ResourceResolverPoolImpl.Config.class)
+public class ResourceResolverPoolImpl implements ResourceResolverPool {
+
+    @ObjectClassDefinition(name = "Portfolio - Resource Resolver Pool",
+                           description = "Pool of read-only service resolvers for background tasks")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Pool size",
+                             description = "Maximum number of resolvers lent at a time, "
+                                     + "above the content traversal parallelism")
+        int pool_size() default 4;
+
+        @AttributeDefinition(name = "Borrow timeout (ms)",
+                             description = "Time to wait for a free resolver before a temporary one is opened")
+        long borrow_timeout() default 2000;
+
+        @AttributeDefinition(name = "Maximum age (s)",
+                             description = "Age after which an idle resolver is closed and replaced")
+        long max_age() default 600;
+    }
+
+    static final String SUBSERVICE = "content-reader";
+
+    private static final Map<String, Object> AUTH =
+            Collections.<String, Object>singletonMap(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    private BlockingQueue<Pooled> idle;
+    private Semaphore permits;
+    private long borrowTimeout;
+    private long maxAge;
+    private volatile boolean closed;
+
+    @Activate
+    protected void activate(final Config config) {
+        int size = Math.max(1, config.pool_size());
+        idle = new ArrayBlockingQueue<>(size);
+        permits = new Semaphore(size, true);
+        borrowTimeout = config.borrow_timeout();
+        maxAge = TimeUnit.SECONDS.toMillis(config.max_age());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        closed = true;
+        Pooled pooled;
+        while ((pooled = idle.poll()) != null) {
+            pooled.resolver.close();
+        }
+    }
+
+    @Override
+    public Lease borrow() throws LoginException {
+        boolean permitted;
+        try {
+            permitted = permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitted = false;
+        }
+        if (!permitted) {
+            logger.warn("No pooled resolver free after {} ms, opening a temporary one", borrowTimeout);
+            return new PooledLease(new Pooled(login()), false);
+        }
+        try {
+            return new PooledLease(take(), true);
+        } catch (LoginException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Pooled take() throws LoginException {
+        Pooled pooled;
+        while ((pooled = idle.poll()) != null) {
+            if (pooled.resolver.isLive() && System.currentTimeMillis() - pooled.created < maxAge) {
+                // see the content persisted since the resolver was last used
+                pooled.resolver.refresh();
+                return pooled;
+            }
+            pooled.resolver.close();
+        }
+        return new Pooled(login());
+    }
+
+    private ResourceResolver login() throws LoginException {
+        return resolverFactory.getServiceResourceResolver(AUTH);
+    }
+
+    private void giveBack(final Pooled pooled) {
+        try {
+            if (pooled.resolver.isLive() && pooled.resolver.hasChanges()) {
+                // the pool is read-only, never carry changes over to the next borrower
+                pooled.resolver.revert();
+            }
+            if (closed || !pooled.resolver.isLive() || !idle.offer(pooled)) {
+                pooled.resolver.close();
+            } else if (closed && idle.remove(pooled)) {
+                // deactivated while it was given back
+                pooled.resolver.close();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static final class Pooled {
+        private final ResourceResolver resolver;
+        private final long created = System.currentTimeMillis();
+
+        Pooled(ResourceResolver resolver) {
+            this.resolver = resolver;
+        }
+    }
+
+    private final class PooledLease implements Lease {
+        private final Pooled pooled;
+        private final boolean returnToPool;
+        private boolean closed;
+
+        PooledLease(Pooled pooled, boolean returnToPool) {
+            this.pooled = pooled;
+            this.returnToPool = returnToPool;
+        }
+
+        @Override
+        public ResourceResolver getResolver() {
+            return pooled.resolver;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (returnToPool) {
+                giveBack(pooled);
+            } else {
+                pooled.resolver.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.models.CardModel;
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.ResourceResolverPool;
+import com.adobe.aem.portfolio.core.services.SearchHit;
+import com.adobe.aem.portfolio.core.services.SearchIndex;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Inverted index from words to the pages containing them.
+ *
+ * Words are kept sorted, so the prefix of the last query word is a range
+ * lookup. Each posting holds the weight of the word on the page (title words
+ * count more than body text), and hits are ranked by the sum of the weights
+ * of the matched words times their inverse document frequency.
+ *
+ * The index is built from the repository on the first search, reading the
+ * pages in parallel, and then kept up to date page by page from change
+ * events.
+ */
+@Component(service = SearchIndex.class)
+@Designate(ocd = SearchIndexImpl.Config.class)
+public class SearchIndexImpl implements SearchIndex {
+
+    @ObjectClassDefinition(name = "Portfolio - Search Index",
+                           description = "In-memory full-text index of the portfolio pages")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Root path",
+                             description = "Pages indexed, including their descendants")
+        String root_path() default "/content/portfolio";
+    }
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 2f;
+    private static final float TEXT_WEIGHT = 1f;
+    private static final double PREFIX_FACTOR = 0.8;
+    private static final int MIN_WORD_LENGTH = 2;
+
+    private static final String JCR_CONTENT_SEGMENT = "/" + JcrConstants.JCR_CONTENT;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private final Map<String, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Document, Float>> postings = new TreeMap<>();
+    private boolean built;
+
+    @Reference
+    private ResourceResolverPool resolverPool;
+
+    @Reference
+    private LinkResolver linkResolver;
+
+    @Reference
+    private ContentTraversal contentTraversal;
+
+    private String rootPath;
+
+    @Activate
+    @Modified
+    protected void activate(final Config config) {
+        lock.writeLock().lock();
+        try {
+            rootPath = config.root_path();
+            documents.clear();
+            postings.clear();
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(final String query, final int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Map<Document, Double> scores = null;
+            for (int i = 0; i < words.size() && (scores == null || !scores.isEmpty()); i++) {
+                Map<Document, Double> matches = match(words.get(i), i == words.size() - 1);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    for (Map.Entry<Document, Double> score : scores.entrySet()) {
+                        score.setValue(score.getValue() + matches.get(score.getKey()));
+                    }
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(final Collection<String> paths) {
+        Set<String> pagePaths = new LinkedHashSet<>();
+        for (String path : paths) {
+            if (path != null && isSameOrDescendant(path, rootPath)) {
+                int contentIndex = path.indexOf(JCR_CONTENT_SEGMENT);
+                pagePaths.add(contentIndex > 0 ? path.substring(0, contentIndex) : path);
+            }
+        }
+        if (pagePaths.isEmpty()) {
+            return;
+        }
+        try (ResourceResolverPool.Lease lease = resolverPool.borrow()) {
+            ResourceResolver resolver = lease.getResolver();
+            PageManager pageManager = resolver.adaptTo(PageManager.class);
+            lock.writeLock().lock();
+            try {
+                if (!built) {
+                    // the first search builds the whole index anyway
+                    return;
+                }
+                for (String path : pagePaths) {
+                    Page page = pageManager.getPage(path);
+                    if (page == null) {
+                        // deleted or moved away, with all its descendants
+                        removeTree(path);
+                    } else if (documents.containsKey(path)) {
+                        remove(documents.get(path));
+                        add(resolver, page);
+                    } else {
+                        // created or moved here
+                        addTree(resolver, page);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (LoginException e) {
+            logger.error("Could not borrow a service resolver", e);
+        }
+    }
+
+    private void ensureBuilt() {
+        lock.readLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                try (Trace.Span span = Trace.current().span("search index build")) {
+                    // pages are read in parallel, the index itself is only written here
+                    Queue<Document> read = new ConcurrentLinkedQueue<>();
+                    contentTraversal.traverse(rootPath, resource -> {
+                        Page page = resource.adaptTo(Page.class);
+                        if (page == null) {
+                            return ContentTraversal.Action.SKIP_CHILDREN;
+                        }
+                        read.add(read(resource.getResourceResolver(), page));
+                        return ContentTraversal.Action.CONTINUE;
+                    });
+                    for (Document document : read) {
+                        index(document);
+                    }
+                }
+                built = true;
+                logger.info("Indexed {} pages with {} words below {}", documents.size(), postings.size(), rootPath);
+            }
+        } catch (LoginException e) {
+            logger.error("Could not borrow a service resolver", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Document, Double> match(final String word, final boolean prefix) {
+        Map<Document, Double> matches = new HashMap<>();
+        Map<String, Map<Document, Float>> terms = prefix
+                ? postings.subMap(word, true, word + Character.MAX_VALUE, false)
+                : postings.subMap(word, true, word, true);
+        for (Map.Entry<String, Map<Document, Float>> term : terms.entrySet()) {
+            double idf = Math.log(1 + (double) documents.size() / term.getValue().size());
+            double factor = term.getKey().equals(word) ? 1 : PREFIX_FACTOR;
+            for (Map.Entry<Document, Float> posting : term.getValue().entrySet()) {
+                matches.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private static List<SearchHit> top(final Map<Document, Double> scores, final int limit) {
+        // sized by the matches, never by the requested limit
+        PriorityQueue<Map.Entry<Document, Double>> best = new PriorityQueue<>(
+                (int) Math.min(limit + 1L, scores.size() + 1L), (a, b) -> Double.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Document, Double> score : scores.entrySet()) {
+            best.add(score);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Map.Entry<Document, Double> score = best.poll();
+            Document document = score.getKey();
+            hits.add(new SearchHit(document.path, document.title, document.url, score.getValue()));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private void addTree(final ResourceResolver resolver, final Page page) {
+        if (!documents.containsKey(page.getPath())) {
+            add(resolver, page);
+        }
+        Iterator<Page> children = page.listChildren();
+        while (children.hasNext()) {
+            addTree(resolver, children.next());
+        }
+    }
+
+    private void add(final ResourceResolver resolver, final Page page) {
+        index(read(resolver, page));
+    }
+
+    private Document read(final ResourceResolver resolver, final Page page) {
+        String title = page.getTitle() != null ? page.getTitle() : page.getName();
+        Document document = new Document(page.getPath(), title,
+                linkResolver.resolve(resolver, page.getPath())[0]);
+        addText(document, title, TITLE_WEIGHT);
+        addText(document, page.getDescription(), DESCRIPTION_WEIGHT);
+        Resource content = page.getContentResource();
+        if (content != null) {
+            for (Resource child : content.getChildren()) {
+                addComponents(document, child);
+            }
+        }
+        return document;
+    }
+
+    private void index(final Document document) {
+        documents.put(document.path, document);
+        for (Map.Entry<String, Float> term : document.terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(document, term.getValue());
+        }
+    }
+
+    private void addComponents(final Document document, final Resource resource) {
+        if (resource.isResourceType(NowSectionModel.RESOURCE_TYPE)) {
+            addNowSection(document, resource.adaptTo(NowSectionModel.class));
+        } else if (resource.isResourceType(WritingSectionModel.RESOURCE_TYPE)) {
+            addWritingSection(document, resource.adaptTo(WritingSectionModel.class));
+        } else if (resource.isResourceType(CardModel.RESOURCE_TYPE)) {
+            addCard(document, resource.adaptTo(CardModel.class));
+        } else {
+            // core title, text and teaser components
+            ValueMap properties = resource.getValueMap();
+            addText(document, properties.get(JcrConstants.JCR_TITLE, String.class), TEXT_WEIGHT);
+            addText(document, properties.get(JcrConstants.JCR_DESCRIPTION, String.class), TEXT_WEIGHT);
+            addText(document, properties.get("text", String.class), TEXT_WEIGHT);
+            for (Resource child : resource.getChildren()) {
+                addComponents(document, child);
+            }
+        }
+    }
+
+    private static void addNowSection(final Document document, final NowSectionModel model) {
+        if (model == null) {
+            return;
+        }
+        addText(document, model.getProfileSummary(), TEXT_WEIGHT);
+        for (NowSectionModel.Experience experience : model.getExperiences()) {
+            addText(document, experience.getCompany(), DESCRIPTION_WEIGHT);
+            addText(document, experience.getRole(), DESCRIPTION_WEIGHT);
+            addText(document, experience.getDescription(), TEXT_WEIGHT);
+            addText(document, String.join(" ", experience.getTechnologies()), TEXT_WEIGHT);
+        }
+        for (NowSectionModel.Project project : model.getProjects()) {
+            addText(document, project.getTitle(), DESCRIPTION_WEIGHT);
+            addText(document, project.getDescription(), TEXT_WEIGHT);
+            addText(document, project.getTechStack(), TEXT_WEIGHT);
+        }
+        for (NowSectionModel.SkillCategory category : model.getSkillCategories()) {
+            addText(document, category.getCategoryName(), TEXT_WEIGHT);
+            addText(document, String.join(" ", category.getSkills()), TEXT_WEIGHT);
+        }
+    }
+
+    private static void addWritingSection(final Document document, final WritingSectionModel model) {
+        if (model == null) {
+            return;
+        }
+        for (WritingSectionModel.Article article : model.getArticles()) {
+            addText(document, article.getTitle(), DESCRIPTION_WEIGHT);
+            addText(document, article.getDescription(), TEXT_WEIGHT);
+            addText(document, article.getPlatform(), TEXT_WEIGHT);
+        }
+    }
+
+    private static void addCard(final Document document, final CardModel model) {
+        if (model == null) {
+            return;
+        }
+        addText(document, model.getTitle(), DESCRIPTION_WEIGHT);
+        addText(document, model.getDescription(), TEXT_WEIGHT);
+        addText(document, model.getTagText(), TEXT_WEIGHT);
+    }
+
+    private static void addText(final Document document, final String text, final float weight) {
+        if (text == null) {
+            return;
+        }
+        for (String word : tokenize(text.replaceAll("<[^>]*>", " "))) {
+            document.terms.merge(word, weight, Float::sum);
+        }
+    }
+
+    private void remove(final Document document) {
+        documents.remove(document.path);
+        for (String word : document.terms.keySet()) {
+            Map<Document, Float> posting = postings.get(word);
+            if (posting != null) {
+                posting.remove(document);
+                if (posting.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    private void removeTree(final String path) {
+        List<Document> removed = new ArrayList<>();
+        for (Document document : documents.values()) {
+            if (isSameOrDescendant(document.path, path)) {
+                removed.add(document);
+            }
+        }
+        for (Document document : removed) {
+            remove(document);
+        }
+    }
+
+    /**
+     * Splits text into lower case words of letters and digits.
+     */
+    static List<String> tokenize(final String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_WORD_LENGTH) {
+                    words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static boolean isSameOrDescendant(final String path, final String ancestor) {
+        return path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    private static final class Document {
+        private final String path;
+        private final String title;
+        private final String url;
+        private final Map<String, Float> terms = new HashMap<>();
+
+        Document(String path, String title, String url) {
+            this.path = path;
+            this.title = title;
+            this.url = url;
+        }
+    }
+}
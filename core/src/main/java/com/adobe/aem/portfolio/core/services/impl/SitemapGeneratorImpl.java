@@ -0,0 +1,422 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.SitemapGenerator;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.Externalizer;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+
+/**
+ * Sitemap generator keeping an in-memory index of the site's pages.
+ *
+ * Every page is assigned to a shard when it is first seen and keeps that
+ * shard until it is removed, so adding, changing or deleting a page only
+ * rewrites the one shard it belongs to. New pages fill the first shard with
+ * room. The index (sitemap-index.xml) is only rewritten when the number of
+ * shards changes.
+ *
+ * Shards are stored as nt:file below /var/portfolio/sitemap, named
+ * sitemap-&lt;n&gt;.xml, and written by the portfolio-sitemap-writer service user.
+ * Updates are serialized; requests only read the committed files and shard
+ * count, so they never wait for an update or a full rebuild.
+ */
+@Component(service = SitemapGenerator.class)
+@Designate(ocd = SitemapGeneratorImpl.Config.class)
+public class SitemapGeneratorImpl implements SitemapGenerator {
+
+    @ObjectClassDefinition(name = "Portfolio - Sitemap Generator",
+                           description = "Generates the sharded sitemap of the portfolio site")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Root path",
+                             description = "Page the sitemap is generated for, including its descendants")
+        String root_path() default "/content/portfolio/us/en";
+
+        @AttributeDefinition(name = "Shard size",
+                             description = "Maximum number of URLs per sitemap file (50000 at most)")
+        int shard_size() default 50000;
+    }
+
+    static final String SUBSERVICE = "sitemap-writer";
+    static final String STORAGE_PATH = "/var/portfolio/sitemap";
+    static final String INDEX_NAME = "sitemap-index.xml";
+
+    private static final Map<String, Object> AUTH =
+            Collections.<String, Object>singletonMap(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+
+    private static final String JCR_CONTENT_SEGMENT = "/" + JcrConstants.JCR_CONTENT;
+    private static final String XML_MIME_TYPE = "application/xml";
+    private static final String W3C_DATE = "yyyy-MM-dd'T'HH:mm:ssXXX";
+    private static final Pattern SHARD_NAME = Pattern.compile("sitemap-(\\d{1,5})\\.xml");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Set<String> changedPaths = ConcurrentHashMap.newKeySet();
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    @Reference
+    private Externalizer externalizer;
+
+    private volatile String rootPath;
+    private int shardSize;
+
+    // guarded by this, only update() and activate() take the lock
+    private NavigableMap<String, Entry> entries;
+    private final List<Integer> shardSizes = new ArrayList<>();
+    private final Set<Integer> dirtyShards = new TreeSet<>();
+
+    /**
+     * Published once the shards are committed, so readers never wait on an
+     * update; read from the stored shards at activation.
+     */
+    private volatile int storedShardCount;
+
+    @Activate
+    @Modified
+    protected synchronized void activate(final Config config) {
+        rootPath = config.root_path();
+        shardSize = Math.max(1, Math.min(config.shard_size(), 50000));
+        // rebuild on the next update
+        entries = null;
+        changedPaths.clear();
+        storedShardCount = countStoredShards();
+    }
+
+    @Override
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    @Override
+    public void markChanged(final String path) {
+        if (path == null || !isSameOrDescendant(path, rootPath)) {
+            return;
+        }
+        int contentIndex = path.indexOf(JCR_CONTENT_SEGMENT);
+        changedPaths.add(contentIndex > 0 ? path.substring(0, contentIndex) : path);
+    }
+
+    @Override
+    public synchronized void update() {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(AUTH)) {
+            PageManager pageManager = resolver.adaptTo(PageManager.class);
+            if (entries == null) {
+                try (Trace.Span span = Trace.current().span("sitemap rebuild")) {
+                    rebuild(resolver, pageManager);
+                }
+            } else {
+                try (Trace.Span span = Trace.current().span("sitemap changes")) {
+                    applyChanges(resolver, pageManager);
+                }
+            }
+            try (Trace.Span span = Trace.current().span("sitemap store")) {
+                store(resolver);
+            }
+        } catch (LoginException e) {
+            logger.error("Could not log in as the {} service user", SUBSERVICE, e);
+        } catch (PersistenceException e) {
+            logger.error("Could not store the sitemap of {}", rootPath, e);
+            // start over from the stored state on the next run
+            entries = null;
+        }
+    }
+
+    @Override
+    public int getShardCount() {
+        return storedShardCount;
+    }
+
+    @Override
+    public boolean writeShard(final int shard, final OutputStream out) throws IOException {
+        return copy(shardName(shard), out);
+    }
+
+    @Override
+    public boolean writeIndex(final OutputStream out) throws IOException {
+        return copy(INDEX_NAME, out);
+    }
+
+    /**
+     * @return The number of shards a previous run stored, so the first store
+     *         deletes the shards no longer needed and rewrites a changed index
+     */
+    private int countStoredShards() {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(AUTH)) {
+            Resource folder = resolver.getResource(STORAGE_PATH);
+            int count = 0;
+            if (folder != null) {
+                for (Resource file : folder.getChildren()) {
+                    Matcher matcher = SHARD_NAME.matcher(file.getName());
+                    if (matcher.matches()) {
+                        count = Math.max(count, Integer.parseInt(matcher.group(1)) + 1);
+                    }
+                }
+            }
+            return count;
+        } catch (LoginException e) {
+            logger.error("Could not read the stored sitemap shards of {}", rootPath, e);
+            return 0;
+        }
+    }
+
+    private void rebuild(final ResourceResolver resolver, final PageManager pageManager) {
+        entries = new TreeMap<>();
+        shardSizes.clear();
+        dirtyShards.clear();
+        changedPaths.clear();
+        Page root = pageManager.getPage(rootPath);
+        if (root != null) {
+            addTree(resolver, root);
+        }
+        for (int shard = 0; shard < Math.max(1, shardSizes.size()); shard++) {
+            dirtyShards.add(shard);
+        }
+        logger.info("Indexed {} pages below {} in {} sitemap shards", entries.size(), rootPath, shardSizes.size());
+    }
+
+    private void applyChanges(final ResourceResolver resolver, final PageManager pageManager) {
+        Iterator<String> iterator = changedPaths.iterator();
+        while (iterator.hasNext()) {
+            String path = iterator.next();
+            iterator.remove();
+            Page page = pageManager.getPage(path);
+            Entry entry = entries.get(path);
+            if (page == null) {
+                // deleted or moved away, with all its descendants
+                removeTree(path);
+            } else if (entry != null) {
+                entry.lastModified = page.getLastModified();
+                dirtyShards.add(entry.shard);
+            } else {
+                // created or moved here
+                addTree(resolver, page);
+            }
+        }
+    }
+
+    private void addTree(final ResourceResolver resolver, final Page page) {
+        if (!entries.containsKey(page.getPath())) {
+            int shard = allocateShard();
+            entries.put(page.getPath(), new Entry(externalizer.publishLink(resolver, page.getPath() + ".html"),
+                    page.getLastModified(), shard));
+            dirtyShards.add(shard);
+        }
+        Iterator<Page> children = page.listChildren();
+        while (children.hasNext()) {
+            addTree(resolver, children.next());
+        }
+    }
+
+    private void removeTree(final String path) {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            releaseShard(entry.shard);
+        }
+        Iterator<Entry> descendants = entries.subMap(path + "/", true, path + "0", false).values().iterator();
+        while (descendants.hasNext()) {
+            releaseShard(descendants.next().shard);
+            descendants.remove();
+        }
+    }
+
+    private int allocateShard() {
+        for (int shard = 0; shard < shardSizes.size(); shard++) {
+            if (shardSizes.get(shard) < shardSize) {
+                shardSizes.set(shard, shardSizes.get(shard) + 1);
+                return shard;
+            }
+        }
+        shardSizes.add(1);
+        return shardSizes.size() - 1;
+    }
+
+    private void releaseShard(final int shard) {
+        shardSizes.set(shard, shardSizes.get(shard) - 1);
+        dirtyShards.add(shard);
+    }
+
+    private void store(final ResourceResolver resolver) throws PersistenceException {
+        // trailing empty shards are dropped, an empty site still gets one shard
+        while (shardSizes.size() > 1 && shardSizes.get(shardSizes.size() - 1) == 0) {
+            shardSizes.remove(shardSizes.size() - 1);
+        }
+        int shardCount = Math.max(1, shardSizes.size());
+        if (dirtyShards.isEmpty() && shardCount == storedShardCount) {
+            return;
+        }
+        // created by repoinit
+        Resource folder = resolver.getResource(STORAGE_PATH);
+        if (folder == null) {
+            throw new PersistenceException("Missing sitemap folder " + STORAGE_PATH);
+        }
+        Map<Integer, StringBuilder> shards = renderShards(dirtyShards);
+        for (Map.Entry<Integer, StringBuilder> shard : shards.entrySet()) {
+            if (shard.getKey() < shardCount) {
+                writeFile(resolver, folder, shardName(shard.getKey()), shard.getValue().toString());
+            }
+        }
+        for (int shard = shardCount; shard < storedShardCount; shard++) {
+            Resource stale = folder.getChild(shardName(shard));
+            if (stale != null) {
+                resolver.delete(stale);
+            }
+        }
+        if (shardCount != storedShardCount) {
+            writeFile(resolver, folder, INDEX_NAME, renderIndex(resolver, shardCount));
+        }
+        resolver.commit();
+        logger.debug("Stored {} of {} sitemap shards of {}", shards.size(), shardCount, rootPath);
+        dirtyShards.clear();
+        storedShardCount = shardCount;
+    }
+
+    private Map<Integer, StringBuilder> renderShards(final Set<Integer> shards) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(W3C_DATE);
+        Map<Integer, StringBuilder> xml = new HashMap<>();
+        for (Integer shard : shards) {
+            xml.put(shard, new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n"));
+        }
+        for (Entry entry : entries.values()) {
+            StringBuilder out = xml.get(entry.shard);
+            if (out != null) {
+                out.append("<url><loc>").append(escape(entry.location)).append("</loc>");
+                if (entry.lastModified != null) {
+                    out.append("<lastmod>").append(dateFormat.format(entry.lastModified.getTime())).append("</lastmod>");
+                }
+                out.append("</url>\n");
+            }
+        }
+        for (StringBuilder out : xml.values()) {
+            out.append("</urlset>\n");
+        }
+        return xml;
+    }
+
+    private String renderIndex(final ResourceResolver resolver, final int shardCount) {
+        StringBuilder out = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        for (int shard = 0; shard < shardCount; shard++) {
+            String location = externalizer.publishLink(resolver, rootPath + ".sitemap." + shard + ".xml");
+            out.append("<sitemap><loc>").append(escape(location)).append("</loc></sitemap>\n");
+        }
+        return out.append("</sitemapindex>\n").toString();
+    }
+
+    private static void writeFile(final ResourceResolver resolver, final Resource folder, final String name,
+            final String xml) throws PersistenceException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(JcrConstants.JCR_DATA, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        properties.put(JcrConstants.JCR_MIMETYPE, XML_MIME_TYPE);
+        properties.put(JcrConstants.JCR_ENCODING, StandardCharsets.UTF_8.name());
+        properties.put(JcrConstants.JCR_LASTMODIFIED, Calendar.getInstance());
+
+        Resource file = folder.getChild(name);
+        Resource content = file != null ? file.getChild(JcrConstants.JCR_CONTENT) : null;
+        if (content != null) {
+            content.adaptTo(ModifiableValueMap.class).putAll(properties);
+            return;
+        }
+        if (file == null) {
+            file = resolver.create(folder, name,
+                    Collections.<String, Object>singletonMap(JcrConstants.JCR_PRIMARYTYPE, JcrConstants.NT_FILE));
+        }
+        properties.put(JcrConstants.JCR_PRIMARYTYPE, JcrConstants.NT_RESOURCE);
+        resolver.create(file, JcrConstants.JCR_CONTENT, properties);
+    }
+
+    private boolean copy(final String name, final OutputStream out) throws IOException {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(AUTH)) {
+            Resource file = resolver.getResource(STORAGE_PATH + "/" + name);
+            InputStream data = file != null ? file.adaptTo(InputStream.class) : null;
+            if (data == null) {
+                return false;
+            }
+            try (InputStream in = data) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            return true;
+        } catch (LoginException e) {
+            throw new IOException("Could not log in as the " + SUBSERVICE + " service user", e);
+        }
+    }
+
+    static String shardName(final int shard) {
+        return "sitemap-" + shard + ".xml";
+    }
+
+    static String escape(final String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '&': escaped.append("&amp;"); break;
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '"': escaped.append("&quot;"); break;
+                case '\'': escaped.append("&apos;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean isSameOrDescendant(final String path, final String ancestor) {
+        return path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
+    private static final class Entry {
+        private final String location;
+        private Calendar lastModified;
+        private final int shard;
+
+        Entry(String location, Calendar lastModified, int shard) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.shard = shard;
+        }
+    }
+}
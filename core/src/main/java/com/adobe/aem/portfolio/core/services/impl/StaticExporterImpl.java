@@ -0,0 +1,504 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.ResourceUtil;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.engine.SlingRequestProcessor;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.StaticExporter;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.contentsync.handler.util.RequestResponseFactory;
+import com.day.cq.wcm.api.WCMMode;
+
+/**
+ * Static export rendered through the Sling request processor.
+ *
+ * The pages are found with the parallel content traversal, then rendered by
+ * parallelism workers, each with its own resolver of the static-exporter
+ * service user, which also reads the scripts and configurations. The
+ * rendered HTML is scanned for src and href attributes, and the CSS for
+ * url() references; the ones under the reference prefixes are rendered
+ * the same way, until no new reference is found.
+ *
+ * Pages are written at their mapped path (resolver.map), the URL the
+ * rendered links point to; references are written at the URL they are
+ * linked with.
+ *
+ * A manifest in the export directory records the last modification of
+ * every exported page and of the shared paths, the experience fragments
+ * included in every page, and of the resource of every reference. An
+ * incremental export only renders the pages modified since, all pages if a
+ * shared path changed, and the references that have no file yet or whose
+ * resource was modified. Fingerprinted clientlib URLs change with their
+ * content, so an existing file of one is never stale; a DAM asset keeps its
+ * URL when its binary is replaced. Files are written to a temporary file
+ * and moved in place, so a server reading the directory never sees half a
+ * page.
+ */
+@Component(service = StaticExporter.class)
+@Designate(ocd = StaticExporterImpl.Config.class)
+public class StaticExporterImpl implements StaticExporter {
+
+    @ObjectClassDefinition(name = "Portfolio - Static Exporter",
+                           description = "Exports the portfolio site as static files")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Root path",
+                             description = "Pages exported, including their descendants")
+        String root_path() default "/content/portfolio";
+
+        @AttributeDefinition(name = "Shared paths",
+                             description = "Content included in every page; a change re-renders all pages")
+        String[] shared_paths() default { "/content/experience-fragments/portfolio" };
+
+        @AttributeDefinition(name = "Export directory",
+                             description = "Directory of the exported files, relative to the Sling home")
+        String export_directory() default "portfolio/static-export";
+
+        @AttributeDefinition(name = "ZIP file",
+                             description = "Archive of the export directory written after each export, "
+                                     + "relative to the Sling home; empty for none")
+        String zip_file() default "";
+
+        @AttributeDefinition(name = "Parallelism",
+                             description = "Number of pages rendered at the same time")
+        int parallelism() default 4;
+
+        @AttributeDefinition(name = "Reference prefixes",
+                             description = "Referenced URLs exported next to the pages")
+        String[] reference_prefixes() default { "/etc.clientlibs/", "/content/dam/" };
+    }
+
+    static final String SUBSERVICE = "static-exporter";
+    static final String MANIFEST = ".export-manifest.properties";
+
+    private static final Map<String, Object> AUTH =
+            Collections.<String, Object>singletonMap(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+
+    // manifest key of the shared paths, pages keys start with a slash
+    private static final String SHARED_KEY = "shared";
+    // manifest key prefix of the references, followed by their URL
+    private static final String REFERENCE_KEY = "reference:";
+    private static final String PAGE_TYPE = "cq:Page";
+    private static final String CQ_LAST_MODIFIED = "cq:lastModified";
+    private static final Pattern HTML_REFERENCE = Pattern.compile("(?:src|href)\\s*=\\s*[\"']([^\"'#?]+)");
+    private static final Pattern CSS_REFERENCE = Pattern.compile("url\\(\\s*[\"']?([^\"')#?]+)");
+    // the content hash of ClientLibraryUrlService URLs, e.g. clientlib-site.lc-1a2b-lc.min.css
+    private static final Pattern FINGERPRINT = Pattern.compile("\\.lc-[0-9a-f]+-lc\\.");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private ContentTraversal contentTraversal;
+
+    @Reference
+    private ResourceResolverFactory resolverFactory;
+
+    @Reference
+    private SlingRequestProcessor requestProcessor;
+
+    @Reference
+    private RequestResponseFactory requestResponseFactory;
+
+    private String rootPath;
+    private String[] sharedPaths;
+    private Path exportDirectory;
+    private Path zipFile;
+    private int parallelism;
+    private String[] referencePrefixes;
+    private ExecutorService workers;
+
+    @Activate
+    protected void activate(final BundleContext bundleContext, final Config config) {
+        String slingHome = bundleContext.getProperty("sling.home");
+        open(Paths.get(slingHome != null ? slingHome : "."), config);
+    }
+
+    void open(final Path home, final Config config) {
+        rootPath = config.root_path();
+        sharedPaths = config.shared_paths();
+        exportDirectory = home.resolve(config.export_directory()).toAbsolutePath().normalize();
+        zipFile = config.zip_file().isEmpty() ? null : home.resolve(config.zip_file()).toAbsolutePath();
+        parallelism = Math.max(1, config.parallelism());
+        referencePrefixes = config.reference_prefixes();
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "portfolio-static-export-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public synchronized Result export(final boolean incremental) throws LoginException, IOException {
+        try (Trace.Span span = Trace.current().span("static export");
+                ResourceResolver resolver = resolverFactory.getServiceResourceResolver(AUTH)) {
+            Files.createDirectories(exportDirectory);
+            // a full export ignores the manifest for what changed, not for what was removed
+            Properties previous = readManifest();
+
+            Map<String, Long> pages = new ConcurrentHashMap<>();
+            contentTraversal.traverse(rootPath, resource -> {
+                if (JcrConstants.JCR_CONTENT.equals(resource.getName())) {
+                    return ContentTraversal.Action.SKIP_CHILDREN;
+                }
+                if (PAGE_TYPE.equals(resource.getValueMap().get(JcrConstants.JCR_PRIMARYTYPE, String.class))) {
+                    pages.put(resource.getPath(), lastModified(resource));
+                }
+                return ContentTraversal.Action.CONTINUE;
+            });
+            AtomicLong shared = new AtomicLong();
+            for (String sharedPath : sharedPaths) {
+                contentTraversal.traverse(sharedPath, resource -> {
+                    shared.accumulateAndGet(lastModified(resource), Math::max);
+                    return ContentTraversal.Action.CONTINUE;
+                });
+            }
+
+            boolean sharedChanged = !Long.toString(shared.get()).equals(previous.getProperty(SHARED_KEY));
+            Queue<String> changed = new ConcurrentLinkedQueue<>();
+            int unchanged = 0;
+            for (Map.Entry<String, Long> page : pages.entrySet()) {
+                String uri = page.getKey() + ".html";
+                if (incremental && !sharedChanged
+                        && page.getValue().toString().equals(previous.getProperty(page.getKey()))
+                        && exists(file(resolver.map(uri)))) {
+                    unchanged++;
+                } else {
+                    changed.add(uri);
+                }
+            }
+            int removed = 0;
+            for (String path : previous.stringPropertyNames()) {
+                if (path.startsWith("/") && !pages.containsKey(path)) {
+                    Path file = file(resolver.map(path + ".html"));
+                    if (file != null && Files.deleteIfExists(file)) {
+                        removed++;
+                    }
+                }
+            }
+
+            int toRender = changed.size();
+            Set<String> references = ConcurrentHashMap.newKeySet();
+            Set<String> failed = renderAll(changed, true, references);
+            int rendered = toRender - failed.size();
+
+            int exportedReferences = 0;
+            Set<String> seen = new HashSet<>();
+            Map<String, String> versions = new HashMap<>();
+            while (!references.isEmpty()) {
+                Queue<String> pending = new ConcurrentLinkedQueue<>();
+                for (String reference : references) {
+                    if (!seen.add(reference)) {
+                        continue;
+                    }
+                    String version = FINGERPRINT.matcher(reference).find() ? "" : version(resolver, reference);
+                    if (version != null) {
+                        versions.put(reference, version);
+                    }
+                    if (!incremental || version == null
+                            || !version.equals(previous.getProperty(REFERENCE_KEY + reference, ""))
+                            || !exists(file(reference))) {
+                        pending.add(reference);
+                    }
+                }
+                references.clear();
+                int count = pending.size();
+                Set<String> failedReferences = renderAll(pending, false, references);
+                exportedReferences += count - failedReferences.size();
+                failed.addAll(failedReferences);
+            }
+
+            Properties manifest = new Properties();
+            manifest.setProperty(SHARED_KEY, Long.toString(shared.get()));
+            for (Map.Entry<String, Long> page : pages.entrySet()) {
+                // failed pages are left out, so the next export retries them
+                if (!failed.contains(page.getKey() + ".html")) {
+                    manifest.setProperty(page.getKey(), page.getValue().toString());
+                }
+            }
+            // references of unchanged pages are not seen again, keep their versions
+            for (String key : previous.stringPropertyNames()) {
+                if (key.startsWith(REFERENCE_KEY)) {
+                    manifest.setProperty(key, previous.getProperty(key));
+                }
+            }
+            for (Map.Entry<String, String> version : versions.entrySet()) {
+                if (failed.contains(version.getKey())) {
+                    manifest.remove(REFERENCE_KEY + version.getKey());
+                } else if (!version.getValue().isEmpty()) {
+                    manifest.setProperty(REFERENCE_KEY + version.getKey(), version.getValue());
+                }
+            }
+            writeManifest(manifest);
+            if (zipFile != null) {
+                zip();
+            }
+
+            Result result = new Result(rendered, unchanged, removed, exportedReferences, failed.size());
+            logger.info("Exported {} to {}: {}", rootPath, exportDirectory, result);
+            return result;
+        }
+    }
+
+    /**
+     * Renders the URIs with one resolver per worker.
+     * @param pages Whether the URIs are pages, which are written at their mapped path
+     * @return The URIs that could not be rendered
+     */
+    private Set<String> renderAll(final Queue<String> uris, final boolean pages, final Set<String> references)
+            throws LoginException, IOException {
+        Set<String> failed = ConcurrentHashMap.newKeySet();
+        Trace trace = Trace.current();
+        List<Future<Void>> running = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, uris.size()); i++) {
+            running.add(workers.submit(() -> {
+                try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(AUTH);
+                        Trace.Scope scope = trace.bind()) {
+                    for (String uri = uris.poll(); uri != null; uri = uris.poll()) {
+                        if (!render(resolver, uri, pages, references)) {
+                            failed.add(uri);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<Void> worker : running) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                uris.clear();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Static export of " + rootPath + " interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof LoginException) {
+                    throw (LoginException) e.getCause();
+                }
+                throw new IOException("Static export of " + rootPath + " failed", e.getCause());
+            }
+        }
+        return failed;
+    }
+
+    private boolean render(final ResourceResolver resolver, final String uri, final boolean page,
+            final Set<String> references) {
+        // the URL the page is linked with and relative references are resolved against
+        String location = page ? resolver.map(uri) : uri;
+        Path file = file(location);
+        if (file == null) {
+            return false;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpServletResponse response = requestResponseFactory.createResponse(body);
+        try {
+            HttpServletRequest request = requestResponseFactory.createRequest("GET", uri);
+            WCMMode.DISABLED.toRequest(request);
+            requestProcessor.processRequest(request, response, resolver);
+            response.flushBuffer();
+        } catch (ServletException | IOException | RuntimeException e) {
+            logger.warn("Could not render {}", uri, e);
+            return false;
+        }
+        if (response.getStatus() != HttpServletResponse.SC_OK) {
+            logger.warn("Could not render {}: status {}", uri, response.getStatus());
+            return false;
+        }
+
+        byte[] bytes = body.toByteArray();
+        if (uri.endsWith(".html")) {
+            collect(location, new String(bytes, StandardCharsets.UTF_8), HTML_REFERENCE, references);
+        } else if (uri.endsWith(".css")) {
+            collect(location, new String(bytes, StandardCharsets.UTF_8), CSS_REFERENCE, references);
+        }
+        try {
+            write(file, bytes);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not write {}", file, e);
+            return false;
+        }
+    }
+
+    private void collect(final String base, final String text, final Pattern pattern, final Set<String> references) {
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            String reference = matcher.group(1).trim();
+            if (reference.isEmpty() || reference.startsWith("//") || reference.startsWith("data:")) {
+                continue;
+            }
+            try {
+                URI resolved = URI.create(base).resolve(reference).normalize();
+                String path = resolved.getRawPath();
+                if (resolved.getScheme() == null && path != null && isReference(path)) {
+                    references.add(path);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("Ignoring reference {} of {}", reference, base);
+            }
+        }
+    }
+
+    private boolean isReference(final String path) {
+        for (String prefix : referencePrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The file of a URI in the export directory, null if it would be outside of it
+     */
+    Path file(final String uri) {
+        String path;
+        try {
+            path = URI.create(uri).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (path == null || !path.startsWith("/")) {
+            return null;
+        }
+        Path file = exportDirectory.resolve(path.substring(1)).normalize();
+        return file.startsWith(exportDirectory) && !file.equals(exportDirectory) ? file : null;
+    }
+
+    /**
+     * @return The last modification of the resource a reference is rendered from, null if it is unknown
+     */
+    private static String version(final ResourceResolver resolver, final String reference) {
+        Resource resource = resolver.resolve(reference);
+        if (resource == null || ResourceUtil.isNonExistingResource(resource)) {
+            return null;
+        }
+        long modified = lastModified(resource);
+        return modified > 0 ? Long.toString(modified) : null;
+    }
+
+    private static boolean exists(final Path file) {
+        return file != null && Files.exists(file);
+    }
+
+    private static long lastModified(final Resource resource) {
+        Resource content = resource.getChild(JcrConstants.JCR_CONTENT);
+        ValueMap properties = (content != null ? content : resource).getValueMap();
+        Calendar modified = properties.get(CQ_LAST_MODIFIED, Calendar.class);
+        if (modified == null) {
+            modified = properties.get(JcrConstants.JCR_LASTMODIFIED, Calendar.class);
+        }
+        return modified != null ? modified.getTimeInMillis() : 0;
+    }
+
+    private Properties readManifest() throws IOException {
+        Properties manifest = new Properties();
+        Path file = exportDirectory.resolve(MANIFEST);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                manifest.load(in);
+            }
+        }
+        return manifest;
+    }
+
+    private void writeManifest(final Properties manifest) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        manifest.store(bytes, "Static export of " + rootPath);
+        write(exportDirectory.resolve(MANIFEST), bytes.toByteArray());
+    }
+
+    private static void write(final Path file, final byte[] bytes) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), ".export", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void zip() throws IOException {
+        Files.createDirectories(zipFile.getParent());
+        Path temp = Files.createTempFile(zipFile.getParent(), ".export", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp);
+                    ZipOutputStream zip = new ZipOutputStream(out);
+                    Stream<Path> files = Files.walk(exportDirectory)) {
+                for (Iterator<Path> it = files.filter(Files::isRegularFile).iterator(); it.hasNext();) {
+                    Path file = it.next();
+                    if (file.getFileName().toString().equals(MANIFEST)) {
+                        continue;
+                    }
+                    zip.putNextEntry(new ZipEntry(exportDirectory.relativize(file).toString().replace('\\', '/')));
+                    Files.copy(file, zip);
+                    zip.closeEntry();
+                }
+            }
+            Files.move(temp, zipFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
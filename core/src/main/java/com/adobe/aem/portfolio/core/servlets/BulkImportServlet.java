@@ -0,0 +1,494 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingAllMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Bulk import of the multifield items of the Now and Writing sections.
+ *
+ * POST /content/portfolio/us/en/jcr:content/root/now.import.json with a
+ * JSON body, one array of items per multifield:
+ *
+ * <pre>
+ * {"experiences": [{"company": "Adobe", "role": "Developer", "current": true}],
+ *  "projects": [...], "skillCategories": [...]}
+ * </pre>
+ *
+ * or, with Content-Type text/csv, a header row of property names and one
+ * item per row; the multifield is the collection column or the collection
+ * parameter. Items are appended as item&lt;n&gt; children, or replace the
+ * existing ones with replace=true.
+ *
+ * The input is read one item at a time and committed every batchSize
+ * items, so its size is not bounded by memory. Each item is validated
+ * against the properties NowSectionModel and WritingSectionModel read;
+ * invalid items and the items of a batch that cannot be committed are
+ * reported with their number, while the others are imported. The
+ * response ends with the counts and the throughput.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes={ NowSectionModel.RESOURCE_TYPE, WritingSectionModel.RESOURCE_TYPE },
+        selectors="import",
+        methods=HttpConstants.METHOD_POST,
+        extensions="json")
+@ServiceDescription("Portfolio bulk import servlet")
+public class BulkImportServlet extends SlingAllMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(BulkImportServlet.class);
+
+    static final int DEFAULT_BATCH_SIZE = 200;
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String COLLECTION = "collection";
+    private static final String ITEM_PREFIX = "item";
+
+    /** The multifields of each section, with the properties its model reads. */
+    private static final Map<String, Map<String, Multifield>> MULTIFIELDS = new HashMap<>();
+
+    static {
+        Map<String, Multifield> now = new HashMap<>();
+        now.put("experiences", new Multifield("company",
+                "role", "startDate", "endDate", "current", "description", "technologies"));
+        now.put("projects", new Multifield("title", "description", "link", "techStack"));
+        now.put("skillCategories", new Multifield("categoryName", "skills"));
+        MULTIFIELDS.put(NowSectionModel.RESOURCE_TYPE, now);
+        MULTIFIELDS.put(WritingSectionModel.RESOURCE_TYPE, Collections.singletonMap("articles",
+                new Multifield("title", "description", "link", "publishDate", "platform")));
+    }
+
+    /** Properties the models read as a boolean. */
+    private static final Set<String> BOOLEAN_PROPERTIES = Collections.singleton("current");
+    /** Properties the models split at commas, which accept an array of strings. */
+    private static final Set<String> LIST_PROPERTIES = new HashSet<>(Arrays.asList("technologies", "skills"));
+
+    @Override
+    protected void doPost(final SlingHttpServletRequest request, final SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        Map<String, Multifield> multifields = multifields(request.getResource());
+        if (multifields == null) {
+            response.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        int batchSize = DEFAULT_BATCH_SIZE;
+        String batchSizeParameter = request.getParameter("batchSize");
+        if (batchSizeParameter != null) {
+            try {
+                batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, Integer.parseInt(batchSizeParameter)));
+            } catch (NumberFormatException e) {
+                response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "Invalid batchSize");
+                return;
+            }
+        }
+        String contentType = request.getContentType();
+        boolean csv = contentType != null && contentType.toLowerCase().startsWith("text/csv");
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        try (Trace.Span span = Trace.of(request).span("bulk import");
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+                JsonGenerator json = JSON_FACTORY.createGenerator(response.getWriter())) {
+            Import run = new Import(request.getResource(), multifields, batchSize,
+                    Boolean.parseBoolean(request.getParameter("replace")), json);
+            json.writeStartObject();
+            json.writeArrayFieldStart("failures");
+            boolean complete = csv
+                    ? run.readCsv(reader, request.getParameter(COLLECTION))
+                    : run.readJson(reader);
+            run.commit();
+            json.writeEndArray();
+            run.writeSummary(complete);
+            json.writeEndObject();
+        }
+    }
+
+    private static Map<String, Multifield> multifields(final Resource resource) {
+        for (Map.Entry<String, Map<String, Multifield>> section : MULTIFIELDS.entrySet()) {
+            if (resource.isResourceType(section.getKey())) {
+                return section.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The properties of the items of a multifield.
+     */
+    private static final class Multifield {
+        /** Property identifying an item, which must not be empty. */
+        private final String label;
+        private final Set<String> properties;
+
+        Multifield(final String label, final String... properties) {
+            this.label = label;
+            this.properties = new LinkedHashSet<>();
+            this.properties.add(label);
+            this.properties.addAll(Arrays.asList(properties));
+        }
+    }
+
+    /**
+     * The state of one import request.
+     */
+    private final class Import {
+        private final Resource section;
+        private final ResourceResolver resolver;
+        private final Map<String, Multifield> multifields;
+        private final int batchSize;
+        private final boolean replace;
+        private final JsonGenerator json;
+        private final long start = System.nanoTime();
+
+        /** Next item index of each multifield, computed on its first item. */
+        private final Map<String, Integer> nextIndexes = new HashMap<>();
+        /** Multifields whose existing items were deleted, committed or not. */
+        private final Set<String> replaced = new HashSet<>();
+        private final Set<String> replacedInBatch = new HashSet<>();
+        /** Numbers and multifields of the items not committed yet. */
+        private final List<Integer> batch = new ArrayList<>();
+        private final List<String> batchMultifields = new ArrayList<>();
+
+        private int records;
+        private int imported;
+        private int failed;
+        private int batches;
+
+        Import(final Resource section, final Map<String, Multifield> multifields, final int batchSize,
+                final boolean replace, final JsonGenerator json) {
+            this.section = section;
+            this.resolver = section.getResourceResolver();
+            this.multifields = multifields;
+            this.batchSize = batchSize;
+            this.replace = replace;
+            this.json = json;
+        }
+
+        /**
+         * Reads an object of multifield arrays.
+         * @return false if the input is malformed, the items before are imported
+         */
+        boolean readJson(final Reader reader) throws IOException {
+            try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    fail(0, null, "Expected an object of item arrays");
+                    return false;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String multifield = parser.getCurrentName();
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        fail(records, multifield, "Expected an array of items");
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        int number = ++records;
+                        if (parser.currentToken() != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            fail(number, multifield, "Expected an object");
+                            continue;
+                        }
+                        Map<String, Object> properties = new LinkedHashMap<>();
+                        String error = readItem(parser, properties);
+                        if (error != null) {
+                            fail(number, multifield, error);
+                        } else {
+                            add(number, multifield, properties);
+                        }
+                    }
+                }
+                return true;
+            } catch (JsonParseException e) {
+                fail(records, null, "Malformed JSON at line " + e.getLocation().getLineNr());
+                return false;
+            }
+        }
+
+        private String readItem(final JsonParser parser, final Map<String, Object> properties) throws IOException {
+            String error = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_ARRAY && LIST_PROPERTIES.contains(name)) {
+                    List<String> values = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken().isScalarValue()) {
+                            values.add(parser.getValueAsString());
+                        } else {
+                            parser.skipChildren();
+                            error = "Property " + name + " must be an array of strings";
+                        }
+                    }
+                    properties.put(name, String.join(", ", values));
+                } else if (value == JsonToken.VALUE_TRUE || value == JsonToken.VALUE_FALSE) {
+                    properties.put(name, value == JsonToken.VALUE_TRUE);
+                } else if (value.isScalarValue()) {
+                    if (value != JsonToken.VALUE_NULL) {
+                        properties.put(name, parser.getValueAsString());
+                    }
+                } else {
+                    parser.skipChildren();
+                    error = "Property " + name + " must be a string";
+                }
+            }
+            return error;
+        }
+
+        /**
+         * Reads CSV with a header row.
+         * @return false if the input is malformed, the items before are imported
+         */
+        boolean readCsv(final BufferedReader reader, final String defaultMultifield) throws IOException {
+            List<String> header = readCsvRow(reader);
+            if (header == null) {
+                return true;
+            }
+            int collectionColumn = header.indexOf(COLLECTION);
+            for (List<String> row = readCsvRow(reader); row != null; row = readCsvRow(reader)) {
+                if (row.size() == 1 && row.get(0).isEmpty()) {
+                    continue;
+                }
+                int number = ++records;
+                if (row.size() != header.size()) {
+                    fail(number, null, "Expected " + header.size() + " columns, found " + row.size());
+                    continue;
+                }
+                String multifield = collectionColumn >= 0 ? row.get(collectionColumn) : defaultMultifield;
+                Map<String, Object> properties = new LinkedHashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    if (i != collectionColumn && !row.get(i).isEmpty()) {
+                        properties.put(header.get(i), row.get(i));
+                    }
+                }
+                add(number, multifield, properties);
+            }
+            return true;
+        }
+
+        private void add(final int number, final String multifield, final Map<String, Object> properties)
+                throws IOException {
+            Multifield schema = multifield != null ? multifields.get(multifield) : null;
+            if (schema == null) {
+                fail(number, multifield, "Unknown multifield, expected one of " + multifields.keySet());
+                return;
+            }
+            String error = validate(schema, properties);
+            if (error != null) {
+                fail(number, multifield, error);
+                return;
+            }
+            try {
+                Resource parent = parent(multifield);
+                int index = nextIndexes.merge(multifield, 1, Integer::sum) - 1;
+                properties.put(JcrConstants.JCR_PRIMARYTYPE, JcrConstants.NT_UNSTRUCTURED);
+                resolver.create(parent, ITEM_PREFIX + index, properties);
+            } catch (PersistenceException | RuntimeException e) {
+                fail(number, multifield, "Could not create the item: " + e.getMessage());
+                return;
+            }
+            batch.add(number);
+            batchMultifields.add(multifield);
+            if (batch.size() >= batchSize) {
+                commit();
+            }
+        }
+
+        private String validate(final Multifield schema, final Map<String, Object> properties) {
+            for (Map.Entry<String, Object> property : properties.entrySet()) {
+                String name = property.getKey();
+                if (!schema.properties.contains(name)) {
+                    return "Unknown property " + name + ", expected " + schema.properties;
+                }
+                if (BOOLEAN_PROPERTIES.contains(name) && property.getValue() instanceof String) {
+                    String value = (String) property.getValue();
+                    if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+                        return "Property " + name + " must be true or false";
+                    }
+                    property.setValue(Boolean.parseBoolean(value));
+                } else if (!BOOLEAN_PROPERTIES.contains(name) && property.getValue() instanceof Boolean) {
+                    property.setValue(property.getValue().toString());
+                }
+            }
+            Object label = properties.get(schema.label);
+            if (label == null || label.toString().trim().isEmpty()) {
+                return "Property " + schema.label + " is required";
+            }
+            return null;
+        }
+
+        /**
+         * Gets the multifield node, deleting its items on the first import with replace.
+         */
+        private Resource parent(final String multifield) throws PersistenceException {
+            Resource parent = section.getChild(multifield);
+            if (replace && parent != null && replaced.add(multifield)) {
+                replacedInBatch.add(multifield);
+                List<Resource> items = new ArrayList<>();
+                for (Resource item : parent.getChildren()) {
+                    items.add(item);
+                }
+                for (Resource item : items) {
+                    resolver.delete(item);
+                }
+                nextIndexes.put(multifield, 0);
+            }
+            if (parent == null) {
+                parent = resolver.create(section, multifield,
+                        Collections.<String, Object>singletonMap(JcrConstants.JCR_PRIMARYTYPE,
+                                JcrConstants.NT_UNSTRUCTURED));
+            }
+            if (!nextIndexes.containsKey(multifield)) {
+                nextIndexes.put(multifield, nextIndex(parent));
+            }
+            return parent;
+        }
+
+        private int nextIndex(final Resource parent) {
+            int next = 0;
+            for (Resource item : parent.getChildren()) {
+                String name = item.getName();
+                if (name.startsWith(ITEM_PREFIX)) {
+                    try {
+                        next = Math.max(next, Integer.parseInt(name.substring(ITEM_PREFIX.length())) + 1);
+                    } catch (NumberFormatException e) {
+                        // not an item of the dialog
+                    }
+                }
+            }
+            return next;
+        }
+
+        void commit() throws IOException {
+            if (batch.isEmpty() && !resolver.hasChanges()) {
+                return;
+            }
+            batches++;
+            try {
+                resolver.commit();
+                imported += batch.size();
+            } catch (PersistenceException e) {
+                resolver.revert();
+                // the next items are numbered and deleted from what is actually stored
+                nextIndexes.clear();
+                replaced.removeAll(replacedInBatch);
+                for (int i = 0; i < batch.size(); i++) {
+                    fail(batch.get(i), batchMultifields.get(i), "Could not commit the batch: " + e.getMessage());
+                }
+            }
+            batch.clear();
+            batchMultifields.clear();
+            replacedInBatch.clear();
+        }
+
+        private void fail(final int number, final String multifield, final String error) throws IOException {
+            failed++;
+            json.writeStartObject();
+            json.writeNumberField("record", number);
+            json.writeStringField(COLLECTION, multifield);
+            json.writeStringField("error", error);
+            json.writeEndObject();
+            LOG.warn("Import of record {} into {} failed: {}", number, section.getPath(), error);
+        }
+
+        void writeSummary(final boolean complete) throws IOException {
+            long durationMs = (System.nanoTime() - start) / 1000000;
+            json.writeBooleanField("complete", complete);
+            json.writeNumberField("records", records);
+            json.writeNumberField("imported", imported);
+            json.writeNumberField("failed", failed);
+            json.writeNumberField("batches", batches);
+            json.writeNumberField("durationMs", durationMs);
+            json.writeNumberField("recordsPerSecond", durationMs > 0 ? records * 1000L / durationMs : records);
+            LOG.info("Imported {} of {} records into {} in {} ms, {} failed",
+                    imported, records, section.getPath(), durationMs, failed);
+        }
+    }
+
+    /**
+     * Reads a CSV row: comma separated, fields optionally quoted with double
+     * quotes, a doubled quote in a quoted field standing for one.
+     * @return The fields, or null at the end of the input
+     */
+    static List<String> readCsvRow(final BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        for (; c >= 0; c = reader.read()) {
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                if (reader.read() == '"') {
+                    field.append('"');
+                } else {
+                    reader.reset();
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,88 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.util.Calendar;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Base class for read-only JSON endpoints the dispatcher can cache.
+ *
+ * Convention: read endpoints are not mounted under /bin but bound to a
+ * resource type with one selector and the json extension, e.g.
+ * /content/portfolio/us/en.portfolio-data.json. The response then lives in the
+ * dispatcher cache next to the page it is computed from. The activation of
+ * that page invalidates it (see the /invalidate section of portfolio.farm);
+ * as the farm enables TTLs, the dispatcher also refetches it once MAX_AGE
+ * has passed.
+ *
+ * To keep the number of cache entries bounded, requests with additional
+ * selectors or a suffix are answered with 404. Requests with a query string
+ * are served but never cached by the dispatcher.
+ */
+public abstract class CacheableJsonServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Lifetime in the browser and, with /enableTTL, in the dispatcher cache;
+     * an activation of the page invalidates the dispatcher copy earlier.
+     */
+    static final int MAX_AGE = 300;
+
+    @Override
+    protected final void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        RequestPathInfo pathInfo = req.getRequestPathInfo();
+        if (pathInfo.getSelectors().length != 1 || pathInfo.getSuffix() != null) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Calendar lastModified = getLastModified(req);
+        if (lastModified != null) {
+            long modifiedSince = req.getDateHeader(HttpConstants.HEADER_IF_MODIFIED_SINCE);
+            // HTTP dates have a precision of seconds
+            if (modifiedSince >= 0 && lastModified.getTimeInMillis() / 1000 <= modifiedSince / 1000) {
+                resp.setStatus(SlingHttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            resp.setDateHeader(HttpConstants.HEADER_LAST_MODIFIED, lastModified.getTimeInMillis());
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "max-age=" + MAX_AGE);
+
+        try (Trace.Span span = Trace.of(req).span(getClass().getSimpleName());
+                JsonGenerator json = JSON_FACTORY.createGenerator(resp.getWriter())) {
+            writeJson(req, json);
+        }
+    }
+
+    /**
+     * Gets the last modification of the content the response is computed from.
+     * @param request The request
+     * @return The last modification, or null if unknown
+     */
+    protected abstract Calendar getLastModified(SlingHttpServletRequest request);
+
+    /**
+     * Writes the response.
+     * @param request The request
+     * @param json The generator writing to the response
+     * @throws IOException If the response cannot be written
+     */
+    protected abstract void writeJson(SlingHttpServletRequest request, JsonGenerator json) throws IOException;
+}
@@ -0,0 +1,213 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.models.CardModel;
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.wcm.api.Page;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Bulk export of a page tree as NDJSON, for migrations and offline analysis.
+ *
+ * GET /content/portfolio/us/en.portfolio-export.ndjson writes one line per
+ * page, the page itself first, with the properties of its jcr:content
+ * (brand included) and the parsed content of its Now, Writing and card
+ * components, in the format of PortfolioDataServlet.
+ *
+ * Pages are written as the tree is walked, depth first, so the memory used
+ * depends on the depth of the tree and the size of one page, never on the
+ * number of pages. The output is flushed every FLUSH_INTERVAL pages, which
+ * streams the response in chunks instead of buffering it. The export is
+ * read with the permissions of the user and never cached.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="cq/Page",
+        selectors="portfolio-export",
+        methods=HttpConstants.METHOD_GET,
+        extensions="ndjson")
+@ServiceDescription("Portfolio NDJSON export servlet")
+public class ContentExportServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String CONTENT_TYPE = "application/x-ndjson";
+    /** Number of pages written between two flushes of the response. */
+    static final int FLUSH_INTERVAL = 25;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest request, final SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        Page root = request.getResource().adaptTo(Page.class);
+        if (root == null) {
+            response.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(CONTENT_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+
+        try (Trace.Span span = Trace.of(request).span("content export");
+                JsonGenerator json = JSON_FACTORY.createGenerator(response.getWriter())) {
+            // lines are separated by writeLine, not by the generator
+            json.setRootValueSeparator(null);
+            SimpleDateFormat dateFormat = new SimpleDateFormat(PortfolioDataServlet.ISO_DATE);
+            int written = 0;
+            Deque<Iterator<Page>> stack = new ArrayDeque<>();
+            stack.push(Collections.singleton(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Page> pages = stack.peek();
+                if (!pages.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                Page page = pages.next();
+                writePage(json, page, dateFormat);
+                if (++written % FLUSH_INTERVAL == 0) {
+                    json.flush();
+                }
+                stack.push(page.listChildren());
+            }
+        }
+    }
+
+    private static void writePage(final JsonGenerator json, final Page page, final SimpleDateFormat dateFormat)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("path", page.getPath());
+        json.writeStringField("title", page.getTitle());
+        json.writeObjectFieldStart("properties");
+        Resource content = page.getContentResource();
+        if (content != null) {
+            for (Map.Entry<String, Object> property : content.getValueMap().entrySet()) {
+                writeProperty(json, property.getKey(), property.getValue(), dateFormat);
+            }
+        }
+        json.writeEndObject();
+
+        json.writeArrayFieldStart("now");
+        if (content != null) {
+            writeComponents(json, content, NowSectionModel.RESOURCE_TYPE);
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("writing");
+        if (content != null) {
+            writeComponents(json, content, WritingSectionModel.RESOURCE_TYPE);
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("cards");
+        if (content != null) {
+            writeComponents(json, content, CardModel.RESOURCE_TYPE);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    /**
+     * Writes the components of a type found in a page, in document order.
+     */
+    private static void writeComponents(final JsonGenerator json, final Resource resource, final String resourceType)
+            throws IOException {
+        for (Resource child : resource.getChildren()) {
+            if (!child.isResourceType(resourceType)) {
+                writeComponents(json, child, resourceType);
+            } else if (NowSectionModel.RESOURCE_TYPE.equals(resourceType)) {
+                NowSectionModel now = child.adaptTo(NowSectionModel.class);
+                if (now != null) {
+                    PortfolioDataServlet.writeNowSection(json, now);
+                }
+            } else if (WritingSectionModel.RESOURCE_TYPE.equals(resourceType)) {
+                WritingSectionModel writing = child.adaptTo(WritingSectionModel.class);
+                if (writing != null) {
+                    PortfolioDataServlet.writeWritingSection(json, writing);
+                }
+            } else {
+                CardModel card = child.adaptTo(CardModel.class);
+                if (card != null) {
+                    writeCard(json, card);
+                }
+            }
+        }
+    }
+
+    private static void writeCard(final JsonGenerator json, final CardModel card) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("title", card.getTitle());
+        json.writeStringField("description", card.getDescription());
+        json.writeStringField("image", card.getImage());
+        json.writeStringField("imageAlt", card.getImageAlt());
+        json.writeStringField("link", card.getLink());
+        json.writeStringField("linkTarget", card.getLinkTarget());
+        json.writeStringField("buttonText", card.getButtonText());
+        json.writeStringField("tagText", card.getTagText());
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes a JCR property; binaries and other values without a JSON
+     * representation are left out.
+     */
+    private static void writeProperty(final JsonGenerator json, final String name, final Object value,
+            final SimpleDateFormat dateFormat) throws IOException {
+        if (value != null && value.getClass().isArray()) {
+            json.writeArrayFieldStart(name);
+            for (int i = 0; i < Array.getLength(value); i++) {
+                writeValue(json, Array.get(value, i), dateFormat);
+            }
+            json.writeEndArray();
+        } else if (isScalar(value)) {
+            json.writeFieldName(name);
+            writeValue(json, value, dateFormat);
+        }
+    }
+
+    private static boolean isScalar(final Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Number
+                || value instanceof Calendar || value instanceof Date;
+    }
+
+    private static void writeValue(final JsonGenerator json, final Object value, final SimpleDateFormat dateFormat)
+            throws IOException {
+        if (value instanceof Boolean) {
+            json.writeBoolean((Boolean) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            json.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Calendar) {
+            json.writeString(dateFormat.format(((Calendar) value).getTime()));
+        } else if (value instanceof Date) {
+            json.writeString(dateFormat.format((Date) value));
+        } else if (isScalar(value)) {
+            json.writeString(value.toString());
+        } else {
+            json.writeNull();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.commons.jcr.JcrConstants;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+
+/**
+ * Streams the CV and the other portfolio documents.
+ *
+ * Takes over the coredownload selector of the core download servlet for the
+ * download and pdfviewer components, so the files uploaded to them end up
+ * here. The portfolio DAM assets are served by {@link AssetServlet} under a
+ * selector of their own, e.g.
+ * /content/dam/portfolio/cv.pdf.portfolio-download.inline.pdf, so the core
+ * download servlet keeps serving every other asset. Responses carry the
+ * SHA-1 of the binary as ETag and answer a single byte range with 206, also
+ * behind If-Range, so large PDFs resume instead of starting over.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes={ DocumentDownloadServlet.DOWNLOAD, DocumentDownloadServlet.PDF_VIEWER },
+        selectors={ DocumentDownloadServlet.SELECTOR, DocumentDownloadServlet.INLINE_SELECTOR },
+        methods=HttpConstants.METHOD_GET)
+@ServiceDescription("Portfolio document download servlet")
+public class DocumentDownloadServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String ASSET = "dam:Asset";
+    static final String DOWNLOAD = "portfolio/components/download";
+    static final String PDF_VIEWER = "portfolio/components/pdfviewer";
+
+    /** The selector of the core download servlet, which this servlet shadows for the components. */
+    static final String SELECTOR = "coredownload";
+    static final String INLINE_SELECTOR = SELECTOR + ".inline";
+    /** The selector of the portfolio DAM assets. */
+    static final String ASSET_SELECTOR = "portfolio-download";
+    static final String ASSET_INLINE_SELECTOR = ASSET_SELECTOR + ".inline";
+
+    /**
+     * Browser cache lifetime; after that the browser revalidates with the
+     * ETag, which only changes with the binary.
+     */
+    static final int MAX_AGE = 86400;
+
+    private static final String PORTFOLIO_DAM = "/content/dam/portfolio/";
+    private static final String DAM_SHA1 = "dam:sha1";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Gets the download URL of a DAM document.
+     * @param path The path of the asset
+     * @param inline Whether the browser should display the document rather than save it
+     * @return The download URL, or the path itself if it is not a portfolio DAM document
+     */
+    public static String getDownloadPath(final String path, final boolean inline) {
+        if (path == null || !path.startsWith(PORTFOLIO_DAM)) {
+            return path;
+        }
+        int dot = path.lastIndexOf('.');
+        if (dot <= path.lastIndexOf('/') || dot == path.length() - 1) {
+            return path;
+        }
+        return path + '.' + (inline ? ASSET_INLINE_SELECTOR : ASSET_SELECTOR) + path.substring(dot);
+    }
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        Document document = Document.of(req.getResource());
+        if (document == null) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        resp.setHeader("Accept-Ranges", "bytes");
+        resp.setHeader("ETag", document.etag);
+        resp.setHeader("Cache-Control", "max-age=" + MAX_AGE);
+        if (document.lastModified >= 0) {
+            resp.setDateHeader(HttpConstants.HEADER_LAST_MODIFIED, document.lastModified);
+        }
+        if (isNotModified(req, document)) {
+            resp.setStatus(SlingHttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long[] range = ifRange(req, document) ? parseRange(req.getHeader("Range"), document.size) : null;
+        if (range != null && range.length == 0) {
+            resp.setHeader("Content-Range", "bytes */" + document.size);
+            resp.setStatus(SlingHttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        long offset = range != null ? range[0] : 0;
+        long length = range != null ? range[1] - range[0] + 1 : document.size;
+        if (range != null) {
+            resp.setStatus(SlingHttpServletResponse.SC_PARTIAL_CONTENT);
+            resp.setHeader("Content-Range", "bytes " + range[0] + '-' + range[1] + '/' + document.size);
+        }
+        resp.setContentType(document.mimeType);
+        resp.setHeader("Content-Disposition", (req.getRequestPathInfo().getSelectorString()
+                .endsWith(".inline") ? "inline" : "attachment") + "; filename=\"" + document.filename + '"');
+        resp.setContentLengthLong(length);
+
+        try (Trace.Span span = Trace.of(req).span("download");
+                InputStream in = document.open()) {
+            copy(in, resp.getOutputStream(), offset, length);
+        }
+    }
+
+    private static boolean isNotModified(final SlingHttpServletRequest req, final Document document) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // weak comparison, as for any conditional GET
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.equals("*") || weak(trimmed).equals(weak(document.etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long modifiedSince = req.getDateHeader(HttpConstants.HEADER_IF_MODIFIED_SINCE);
+        // HTTP dates have a precision of seconds
+        return modifiedSince >= 0 && document.lastModified >= 0
+                && document.lastModified / 1000 <= modifiedSince / 1000;
+    }
+
+    /**
+     * @return Whether the Range header applies: the If-Range validator, if
+     *         any, still matches the document
+     */
+    private static boolean ifRange(final SlingHttpServletRequest req, final Document document) {
+        String ifRange = req.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // strong comparison only
+            return ifRange.equals(document.etag) && !document.etag.startsWith("W/");
+        }
+        try {
+            long date = req.getDateHeader("If-Range");
+            return document.lastModified >= 0 && date / 1000 == document.lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a Range header.
+     * @param header The header, may be null
+     * @param size The size of the document
+     * @return The first and last byte of the range; null to send the whole
+     *         document, for no or a malformed header, or several ranges; an
+     *         empty array if the range is not satisfiable
+     */
+    static long[] parseRange(final String header, final long size) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0 || size == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+            long first = Long.parseLong(spec.substring(0, dash));
+            long last = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+            if (first < 0 || last < first) {
+                return null;
+            }
+            if (first >= size) {
+                return new long[0];
+            }
+            return new long[] { first, Math.min(last, size - 1) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies a part of the binary through one buffer. The offset is handed
+     * to InputStream.skip, so a stream that can seek does not read the
+     * skipped bytes; the copied bytes always go through the heap, as the
+     * binaries of the repository are only exposed as streams.
+     */
+    private static void copy(final InputStream in, final OutputStream out, final long offset, final long length)
+            throws IOException {
+        for (long skipped = 0; skipped < offset;) {
+            long n = in.skip(offset - skipped);
+            if (n <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Binary shorter than " + offset + " bytes");
+                }
+                n = 1;
+            }
+            skipped += n;
+        }
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(1, length))];
+        for (long remaining = length; remaining > 0;) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw new EOFException("Binary shorter than " + (offset + length) + " bytes");
+            }
+            out.write(buffer, 0, n);
+            remaining -= n;
+        }
+    }
+
+    /**
+     * Serves the assets of the portfolio DAM folder under the portfolio-download
+     * selector; other assets are answered with 404.
+     */
+    @Component(service = { Servlet.class })
+    @SlingServletResourceTypes(
+            resourceTypes=DocumentDownloadServlet.ASSET,
+            selectors={ DocumentDownloadServlet.ASSET_SELECTOR, DocumentDownloadServlet.ASSET_INLINE_SELECTOR },
+            methods=HttpConstants.METHOD_GET)
+    @ServiceDescription("Portfolio asset download servlet")
+    public static class AssetServlet extends DocumentDownloadServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(final SlingHttpServletRequest req,
+                final SlingHttpServletResponse resp) throws ServletException, IOException {
+            if (!req.getResource().getPath().startsWith(PORTFOLIO_DAM)) {
+                resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            super.doGet(req, resp);
+        }
+    }
+
+    private static String weak(final String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * The binary served for a resource: the original rendition of an asset,
+     * or the file uploaded to a download component.
+     */
+    private abstract static class Document {
+        final String filename;
+        final String mimeType;
+        final long size;
+        final long lastModified;
+        final String etag;
+
+        Document(String filename, String mimeType, long size, long lastModified, String hash) {
+            this.filename = filename.replaceAll("[\"\\\\\\p{Cntrl}]", "_");
+            this.mimeType = mimeType != null ? mimeType : "application/octet-stream";
+            this.size = size;
+            this.lastModified = lastModified;
+            // without a content hash, size and date only make a weak validator
+            this.etag = hash != null && !hash.isEmpty()
+                    ? '"' + hash + '"'
+                    : "W/\"" + Long.toHexString(size) + '-' + Long.toHexString(lastModified) + '"';
+        }
+
+        abstract InputStream open() throws IOException;
+
+        static Document of(final Resource resource) {
+            ValueMap properties = resource.getValueMap();
+            if (resource.isResourceType(DOWNLOAD) || resource.isResourceType(PDF_VIEWER)) {
+                String reference = properties.get(
+                        resource.isResourceType(PDF_VIEWER) ? "documentPath" : "fileReference", String.class);
+                if (reference != null) {
+                    Resource asset = resource.getResourceResolver().getResource(reference);
+                    return asset != null ? ofAsset(asset) : null;
+                }
+                Resource file = resource.getChild("file");
+                return file != null ? ofFile(file, properties.get("fileName", file.getName())) : null;
+            }
+            return ofAsset(resource);
+        }
+
+        private static Document ofAsset(final Resource resource) {
+            Asset asset = resource.adaptTo(Asset.class);
+            final Rendition original = asset != null ? asset.getOriginal() : null;
+            if (original == null) {
+                return null;
+            }
+            return new Document(asset.getName(), original.getMimeType(), original.getSize(),
+                    asset.getLastModified() > 0 ? asset.getLastModified() : -1,
+                    asset.getMetadataValue(DAM_SHA1)) {
+                @Override
+                InputStream open() {
+                    return original.getStream();
+                }
+            };
+        }
+
+        private static Document ofFile(final Resource file, final String filename) {
+            Resource content = file.getChild(JcrConstants.JCR_CONTENT);
+            final Node node = content != null ? content.adaptTo(Node.class) : null;
+            if (node == null) {
+                return null;
+            }
+            try {
+                if (!node.hasProperty(JcrConstants.JCR_DATA)) {
+                    return null;
+                }
+                ValueMap properties = content.getValueMap();
+                Calendar modified = properties.get(JcrConstants.JCR_LASTMODIFIED, Calendar.class);
+                return new Document(filename, properties.get(JcrConstants.JCR_MIMETYPE, String.class),
+                        node.getProperty(JcrConstants.JCR_DATA).getLength(),
+                        modified != null ? modified.getTimeInMillis() : -1, null) {
+                    @Override
+                    InputStream open() throws IOException {
+                        try {
+                            Property data = node.getProperty(JcrConstants.JCR_DATA);
+                            return data.getBinary().getStream();
+                        } catch (RepositoryException e) {
+                            throw new IOException("Cannot read " + file.getPath(), e);
+                        }
+                    }
+                };
+            } catch (RepositoryException e) {
+                throw new IllegalStateException("Cannot read " + file.getPath(), e);
+            }
+        }
+    }
+}
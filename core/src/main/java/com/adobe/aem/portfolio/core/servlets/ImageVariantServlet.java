@@ -0,0 +1,119 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.day.cq.dam.api.Asset;
+
+/**
+ * Serves a DAM image resized to one of the configured widths, e.g.
+ * /content/dam/portfolio/avatar.jpg.portfolio-image.640.jpg, in the format
+ * of the extension.
+ *
+ * The URL alone decides the response, so the dispatcher caches the
+ * variants next to the asset and drops them when it is activated. Widths
+ * other than the configured ones are answered with 404, as are additional
+ * selectors, suffixes and extensions without an installed encoder.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="dam:Asset",
+        selectors=ImageVariantService.SELECTOR,
+        methods=HttpConstants.METHOD_GET)
+@ServiceDescription("Portfolio image variant servlet")
+public class ImageVariantServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Variant URLs change with the width only, so revalidate with the ETag once a day. */
+    static final int MAX_AGE = 86400;
+
+    @Reference
+    private transient ImageVariantService imageVariants;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        String[] selectors = req.getRequestPathInfo().getSelectors();
+        int width = selectors.length == 2 ? width(selectors[1]) : -1;
+        Asset asset = req.getResource().adaptTo(Asset.class);
+        if (width < 0 || asset == null || asset.getOriginal() == null || req.getRequestPathInfo().getSuffix() != null) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String format = imageVariants.getFormatOfExtension(req.getRequestPathInfo().getExtension());
+        if (format == null) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        ImageVariantService.Variant variant = imageVariants.getVariant(asset, width, format);
+        if (variant == null) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setHeader("ETag", variant.getETag());
+        resp.setHeader("Cache-Control", "max-age=" + MAX_AGE);
+        if (variant.getETag().equals(req.getHeader("If-None-Match"))) {
+            resp.setStatus(SlingHttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        FileChannel file;
+        try {
+            file = FileChannel.open(variant.getFile(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // evicted in the meantime, encode it again
+            variant = imageVariants.getVariant(asset, width, format);
+            if (variant == null) {
+                resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            file = FileChannel.open(variant.getFile(), StandardOpenOption.READ);
+        }
+        try (FileChannel source = file) {
+            long size = source.size();
+            resp.setContentType(variant.getMimeType());
+            resp.setContentLengthLong(size);
+            WritableByteChannel target = Channels.newChannel(resp.getOutputStream());
+            for (long position = 0; position < size;) {
+                long sent = source.transferTo(position, size - position, target);
+                if (sent <= 0) {
+                    throw new EOFException("Image variant shorter than " + size + " bytes");
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private int width(final String selector) {
+        if (selector.isEmpty() || selector.length() > 5 || !selector.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        int width = Integer.parseInt(selector);
+        for (int allowed : imageVariants.getWidths()) {
+            if (allowed == width) {
+                return width;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,165 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.RowIterator;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.adobe.aem.portfolio.core.services.Trace;
+import com.day.cq.wcm.api.Page;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Pages of a brand, the property updatePagePropertyServlet writes.
+ *
+ * GET /content/portfolio.portfolio-brand-pages.json?brand=acme&amp;offset=0&amp;limit=20
+ * returns the pages below the requested page whose jcr:content has the
+ * brand, most recently modified first, with hasMore set when there is a
+ * next page of results. The query is answered by the
+ * /oak:index/portfolioBrand-custom-1 index (see ui.apps), which indexes
+ * brand and orders cq:lastModified, so neither the lookup nor the sort
+ * read the content; offset and limit are applied by the index.
+ *
+ * With explain=true, the query plan is returned instead of the pages,
+ * which the integration tests use to check that the index is used.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="cq/Page",
+        selectors="portfolio-brand-pages",
+        methods=HttpConstants.METHOD_GET,
+        extensions="json")
+@ServiceDescription("Portfolio pages by brand servlet")
+public class PagesByBrandServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    /** The query, for the page content below the root path; the brand is bound. */
+    static final String QUERY = "SELECT [jcr:path] FROM [cq:PageContent] AS content"
+            + " WHERE ISDESCENDANTNODE(content, '%s') AND content.[brand] = $brand"
+            + " ORDER BY content.[cq:lastModified] DESC";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Reference
+    private transient LinkResolver linkResolver;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest request, final SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        String brand = request.getParameter("brand");
+        if (brand == null || brand.isEmpty()) {
+            response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "brand parameter is required");
+            return;
+        }
+        int offset = parameter(request, "offset", 0, Integer.MAX_VALUE, 0);
+        int limit = parameter(request, "limit", 1, MAX_LIMIT, DEFAULT_LIMIT);
+        ResourceResolver resolver = request.getResourceResolver();
+        Session session = resolver.adaptTo(Session.class);
+        if (session == null) {
+            response.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        String statement = String.format(QUERY, request.getResource().getPath().replace("'", "''"));
+        try (Trace.Span span = Trace.of(request).span("pages by brand");
+                JsonGenerator json = JSON_FACTORY.createGenerator(response.getWriter())) {
+            if (Boolean.parseBoolean(request.getParameter("explain"))) {
+                Query query = query(session, "EXPLAIN " + statement, brand);
+                RowIterator rows = query.execute().getRows();
+                json.writeStartObject();
+                json.writeStringField("statement", statement);
+                json.writeStringField("plan", rows.hasNext() ? rows.nextRow().getValue("plan").getString() : null);
+                json.writeEndObject();
+                return;
+            }
+
+            Query query = query(session, statement, brand);
+            query.setOffset(offset);
+            // one more than requested, to know whether there is a next page
+            query.setLimit(limit + 1L);
+            List<Page> pages = new ArrayList<>();
+            boolean hasMore = false;
+            for (RowIterator rows = query.execute().getRows(); rows.hasNext();) {
+                String contentPath = rows.nextRow().getPath();
+                if (pages.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                Resource page = resolver.getResource(contentPath.substring(0, contentPath.lastIndexOf('/')));
+                if (page != null && page.adaptTo(Page.class) != null) {
+                    pages.add(page.adaptTo(Page.class));
+                }
+            }
+            String[] paths = new String[pages.size()];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = pages.get(i).getPath();
+            }
+            String[] urls = linkResolver.resolve(resolver, paths);
+
+            json.writeStartObject();
+            json.writeStringField("brand", brand);
+            json.writeNumberField("offset", offset);
+            json.writeNumberField("limit", limit);
+            json.writeBooleanField("hasMore", hasMore);
+            json.writeArrayFieldStart("pages");
+            for (int i = 0; i < pages.size(); i++) {
+                json.writeStartObject();
+                json.writeStringField("path", paths[i]);
+                json.writeStringField("title", pages.get(i).getTitle());
+                json.writeStringField("url", urls[i]);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (RepositoryException e) {
+            throw new ServletException("Could not query the pages of brand " + brand, e);
+        }
+    }
+
+    private static Query query(final Session session, final String statement, final String brand)
+            throws RepositoryException {
+        QueryManager queryManager = session.getWorkspace().getQueryManager();
+        Query query = queryManager.createQuery(statement, Query.JCR_SQL2);
+        query.bindValue("brand", session.getValueFactory().createValue(brand));
+        return query;
+    }
+
+    private static int parameter(final SlingHttpServletRequest request, final String name,
+            final int min, final int max, final int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.servlet.Servlet;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.BrandResolver;
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.day.cq.wcm.api.Page;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Portfolio data of a page as JSON, for headless consumers.
+ *
+ * GET /content/portfolio/us/en.portfolio-data.json returns the page
+ * properties, its child pages and the content of its Now and Writing sections.
+ * The brand is the effective brand, inherited from the ancestors when the
+ * page has none.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="cq/Page",
+        selectors="portfolio-data",
+        methods=HttpConstants.METHOD_GET,
+        extensions="json")
+@ServiceDescription("Portfolio page data servlet")
+public class PortfolioDataServlet extends CacheableJsonServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String ISO_DATE = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+
+    @Reference
+    private transient LinkResolver linkResolver;
+
+    @Reference
+    private transient BrandResolver brandResolver;
+
+    /**
+     * The response lists the child pages and the brand, which may be
+     * inherited, so it changes with them as well as with the page itself:
+     * the ancestors are included up to the one the brand comes from.
+     */
+    @Override
+    protected Calendar getLastModified(final SlingHttpServletRequest request) {
+        Page page = request.getResource().adaptTo(Page.class);
+        if (page == null) {
+            return null;
+        }
+        Calendar lastModified = null;
+        for (Page ancestor = page; ancestor != null; ancestor = ancestor.getParent()) {
+            lastModified = newest(lastModified, ancestor.getLastModified());
+            String brand = ancestor.getProperties().get(BrandResolver.PROPERTY, String.class);
+            if (brand != null && !brand.isEmpty()) {
+                break;
+            }
+        }
+        Iterator<Page> children = page.listChildren();
+        while (children.hasNext()) {
+            lastModified = newest(lastModified, children.next().getLastModified());
+        }
+        return lastModified;
+    }
+
+    private static Calendar newest(final Calendar a, final Calendar b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.after(a) ? b : a;
+    }
+
+    @Override
+    protected void writeJson(final SlingHttpServletRequest request, final JsonGenerator json) throws IOException {
+        ResourceResolver resolver = request.getResourceResolver();
+        Page page = request.getResource().adaptTo(Page.class);
+        if (page == null) {
+            json.writeNull();
+            return;
+        }
+
+        List<Page> children = new ArrayList<>();
+        Iterator<Page> iterator = page.listChildren();
+        while (iterator.hasNext()) {
+            children.add(iterator.next());
+        }
+        String[] paths = new String[children.size() + 1];
+        paths[0] = page.getPath();
+        for (int i = 0; i < children.size(); i++) {
+            paths[i + 1] = children.get(i).getPath();
+        }
+        String[] urls = linkResolver.resolve(resolver, paths);
+
+        json.writeStartObject();
+        json.writeStringField("path", page.getPath());
+        json.writeStringField("url", urls[0]);
+        json.writeStringField("title", page.getTitle());
+        json.writeStringField("description", page.getDescription());
+        json.writeStringField("brand", brandResolver.getBrand(page.adaptTo(Resource.class)));
+        if (page.getLastModified() != null) {
+            json.writeStringField("lastModified",
+                    new SimpleDateFormat(ISO_DATE).format(page.getLastModified().getTime()));
+        }
+
+        json.writeArrayFieldStart("children");
+        for (int i = 0; i < children.size(); i++) {
+            json.writeStartObject();
+            json.writeStringField("title", children.get(i).getTitle());
+            json.writeStringField("url", urls[i + 1]);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        List<NowSectionModel> nowSections = new ArrayList<>();
+        List<WritingSectionModel> writingSections = new ArrayList<>();
+        if (page.getContentResource() != null) {
+            collectSections(page.getContentResource(), nowSections, writingSections);
+        }
+        json.writeArrayFieldStart("now");
+        for (NowSectionModel now : nowSections) {
+            writeNowSection(json, now);
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("writing");
+        for (WritingSectionModel writing : writingSections) {
+            writeWritingSection(json, writing);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void collectSections(final Resource resource, final List<NowSectionModel> nowSections,
+            final List<WritingSectionModel> writingSections) {
+        for (Resource child : resource.getChildren()) {
+            if (child.isResourceType(NowSectionModel.RESOURCE_TYPE)) {
+                addIfNotNull(nowSections, child.adaptTo(NowSectionModel.class));
+            } else if (child.isResourceType(WritingSectionModel.RESOURCE_TYPE)) {
+                addIfNotNull(writingSections, child.adaptTo(WritingSectionModel.class));
+            } else {
+                collectSections(child, nowSections, writingSections);
+            }
+        }
+    }
+
+    private static <T> void addIfNotNull(final List<T> list, final T value) {
+        if (value != null) {
+            list.add(value);
+        }
+    }
+
+    static void writeNowSection(final JsonGenerator json, final NowSectionModel now) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("title", now.getSectionTitle());
+        json.writeStringField("profileSummary", now.getProfileSummary());
+        json.writeArrayFieldStart("experiences");
+        for (NowSectionModel.Experience experience : now.getExperiences()) {
+            json.writeStartObject();
+            json.writeStringField("company", experience.getCompany());
+            json.writeStringField("role", experience.getRole());
+            json.writeStringField("timeline", experience.getTimeline());
+            json.writeStringField("description", experience.getDescription());
+            writeStrings(json, "technologies", experience.getTechnologies());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("projects");
+        for (NowSectionModel.Project project : now.getProjects()) {
+            json.writeStartObject();
+            json.writeStringField("title", project.getTitle());
+            json.writeStringField("description", project.getDescription());
+            json.writeStringField("link", project.getLink());
+            json.writeStringField("techStack", project.getTechStack());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("skillCategories");
+        for (NowSectionModel.SkillCategory category : now.getSkillCategories()) {
+            json.writeStartObject();
+            json.writeStringField("categoryName", category.getCategoryName());
+            writeStrings(json, "skills", category.getSkills());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    static void writeWritingSection(final JsonGenerator json, final WritingSectionModel writing)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("title", writing.getSectionTitle());
+        json.writeStringField("description", writing.getSectionDescription());
+        json.writeArrayFieldStart("articles");
+        for (WritingSectionModel.Article article : writing.getArticles()) {
+            json.writeStartObject();
+            json.writeStringField("title", article.getTitle());
+            json.writeStringField("description", article.getDescription());
+            json.writeStringField("link", article.getLink());
+            json.writeStringField("publishDate", article.getPublishDate());
+            json.writeStringField("platform", article.getPlatform());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void writeStrings(final JsonGenerator json, final String name, final List<String> values)
+            throws IOException {
+        json.writeArrayFieldStart(name);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+}
@@ -0,0 +1,111 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.SearchHit;
+import com.adobe.aem.portfolio.core.services.SearchIndex;
+import com.adobe.aem.portfolio.core.services.Trace;
+
+/**
+ * Typeahead endpoint of the search component, answered from the in-memory
+ * {@link SearchIndex} instead of a repository query.
+ *
+ * GET /content/portfolio/us/en.portfolio-search.json?fulltext=aem&amp;resultsOffset=0
+ * returns the same JSON array of {url, title} as the core search results
+ * servlet, so the core search component script renders it unchanged.
+ * Results are paged up to MAX_RESULTS_OFFSET; beyond it the array is empty,
+ * which the search component reads as the end of the results.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="cq/Page",
+        selectors="portfolio-search",
+        methods=HttpConstants.METHOD_GET,
+        extensions="json")
+@ServiceDescription("Portfolio typeahead search servlet")
+public class SearchTypeaheadServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PARAM_FULLTEXT = "fulltext";
+    static final String PARAM_RESULTS_OFFSET = "resultsOffset";
+    static final int RESULTS_SIZE = 10;
+    /** Largest offset served, so the result window stays small whatever the request asks. */
+    static final int MAX_RESULTS_OFFSET = 100;
+
+    @Reference
+    private transient SearchIndex searchIndex;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        int offset = parseOffset(req.getParameter(PARAM_RESULTS_OFFSET));
+        List<SearchHit> hits = Collections.emptyList();
+        if (offset <= MAX_RESULTS_OFFSET) {
+            try (Trace.Span span = Trace.of(req).span("search")) {
+                hits = searchIndex.search(req.getParameter(PARAM_FULLTEXT), offset + RESULTS_SIZE);
+            }
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        PrintWriter writer = resp.getWriter();
+        writer.write('[');
+        for (int i = offset; i < hits.size(); i++) {
+            SearchHit hit = hits.get(i);
+            if (i > offset) {
+                writer.write(',');
+            }
+            writer.write("{\"url\":\"" + escape(hit.getUrl()) + "\",\"title\":\"" + escape(hit.getTitle())
+                    + "\",\"path\":\"" + escape(hit.getPath()) + "\"}");
+        }
+        writer.write(']');
+    }
+
+    private static int parseOffset(final String value) {
+        try {
+            return value != null ? Math.max(0, Integer.parseInt(value)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': escaped.append("\\\""); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '<': escaped.append("\\u003c"); break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.HttpConstants;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.apache.sling.servlets.annotations.SlingServletResourceTypes;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.propertytypes.ServiceDescription;
+
+import com.adobe.aem.portfolio.core.services.SitemapGenerator;
+import com.adobe.aem.portfolio.core.services.Trace;
+
+/**
+ * Serves the stored sitemap of the site root.
+ *
+ * /content/portfolio/us/en.sitemap.xml returns the sitemap index when the
+ * sitemap has several shards, the only shard otherwise;
+ * /content/portfolio/us/en.sitemap.&lt;n&gt;.xml returns shard n.
+ */
+@Component(service = { Servlet.class })
+@SlingServletResourceTypes(
+        resourceTypes="cq/Page",
+        selectors="sitemap",
+        methods=HttpConstants.METHOD_GET,
+        extensions="xml")
+@ServiceDescription("Portfolio sitemap servlet")
+public class SitemapServlet extends SlingSafeMethodsServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    @Reference
+    private transient SitemapGenerator sitemapGenerator;
+
+    @Override
+    protected void doGet(final SlingHttpServletRequest req,
+            final SlingHttpServletResponse resp) throws ServletException, IOException {
+        String[] selectors = req.getRequestPathInfo().getSelectors();
+        if (!req.getResource().getPath().equals(sitemapGenerator.getRootPath()) || selectors.length > 2) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        boolean found;
+        try (Trace.Span span = Trace.of(req).span("sitemap read")) {
+            if (selectors.length == 2) {
+                found = isShardIndex(selectors[1]) && sitemapGenerator.writeShard(Integer.parseInt(selectors[1]), xml);
+            } else if (sitemapGenerator.getShardCount() > 1) {
+                found = sitemapGenerator.writeIndex(xml);
+            } else {
+                found = sitemapGenerator.writeShard(0, xml);
+            }
+        }
+        if (!found) {
+            resp.sendError(SlingHttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        resp.setContentType("application/xml");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setContentLength(xml.size());
+        xml.writeTo(resp.getOutputStream());
+    }
+
+    private static boolean isShardIndex(final String selector) {
+        return selector.length() > 0 && selector.length() < 6 && selector.chars().allMatch(Character::isDigit);
+    }
+}
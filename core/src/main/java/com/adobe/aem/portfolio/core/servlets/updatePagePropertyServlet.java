@@ -1,6 +1,7 @@
 package com.adobe.aem.portfolio.core.servlets;
 
 import java.io.IOException;
+import java.util.Calendar;
 
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
@@ -13,9 +14,13 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.servlets.SlingAllMethodsServlet;
 import org.apache.sling.servlets.annotations.SlingServletPaths;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.adobe.aem.portfolio.core.services.BrandResolver;
+import com.day.cq.wcm.api.NameConstants;
+
 /**
  * Servlet to update page properties (e.g., brand) on AEM pages.
  * 
@@ -32,6 +37,9 @@ public class updatePagePropertyServlet extends SlingAllMethodsServlet {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(updatePagePropertyServlet.class);
 
+    @Reference
+    private transient BrandResolver brandResolver;
+
     /**
      * Handles GET requests - returns method not allowed since data modification
      * should only happen via POST for REST compliance and security.
@@ -104,10 +112,15 @@ public class updatePagePropertyServlet extends SlingAllMethodsServlet {
             }
 
             // Update the brand property
-            properties.put("brand", brand);
+            properties.put(BrandResolver.PROPERTY, brand);
+            // the brand is inherited, descendants validate their cached responses against it
+            properties.put(NameConstants.PN_PAGE_LAST_MOD, Calendar.getInstance());
+            properties.put(NameConstants.PN_PAGE_LAST_MOD_BY, resourceResolver.getUserID());
 
             // Commit changes to the repository
             resourceResolver.commit();
+            // the listener invalidates too, but later; the next read must see the new brand
+            brandResolver.invalidate(pagePath);
 
             LOG.info("Successfully updated brand property to '{}' on page: {}", brand, pagePath);
 
@@ -29,6 +29,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import com.adobe.aem.portfolio.core.services.Trace;
 import io.wcm.testing.mock.aem.junit5.AemContext;
 import io.wcm.testing.mock.aem.junit5.AemContextExtension;
 import uk.org.lidalia.slf4jext.Level;
@@ -37,6 +38,9 @@ import uk.org.lidalia.slf4jtest.TestLogger;
 import uk.org.lidalia.slf4jtest.TestLoggerFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 
 @ExtendWith(AemContextExtension.class)
@@ -73,4 +77,23 @@ class LoggingFilterTest {
         assertEquals("/content/test", event.getArguments().get(0));
         assertEquals("selectors", event.getArguments().get(1));
     }
+
+    @Test
+    void doFilterTracesRequest(AemContext context) throws IOException, ServletException {
+        TestLogger traceLogger = TestLoggerFactory.getTestLogger(Trace.LOGGER_NAME);
+        MockSlingHttpServletRequest request = context.request();
+
+        fixture.doFilter(request, context.response(), (req, res) -> {
+            assertSame(req.getAttribute(Trace.REQUEST_ATTRIBUTE), Trace.current());
+            Trace.current().span("render").close();
+        });
+
+        assertNull(Trace.current().getId());
+        List<LoggingEvent> events = traceLogger.getLoggingEvents();
+        assertEquals(1, events.size());
+        assertEquals(Level.DEBUG, events.get(0).getLevel());
+        String trace = events.get(0).getArguments().get(0).toString();
+        assertTrue(trace.startsWith("{\"trace\":\"" + Trace.of(request).getId() + "\""));
+        assertTrue(trace.contains("{\"name\":\"render\""));
+    }
 }
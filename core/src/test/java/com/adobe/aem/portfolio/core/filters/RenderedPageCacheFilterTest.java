@@ -0,0 +1,96 @@
+package com.adobe.aem.portfolio.core.filters;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.services.RenderedPageStore;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class RenderedPageCacheFilterTest {
+
+    private static final String KEY = "www.example.com/content/portfolio/us/en.html";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final RenderedPageStore pageStore = mock(RenderedPageStore.class);
+
+    private final SlingHttpServletRequest request = mock(SlingHttpServletRequest.class);
+
+    private RenderedPageCacheFilter fixture;
+
+    @BeforeEach
+    void setup() {
+        ResourceResolver resolver = mock(ResourceResolver.class);
+        when(resolver.getUserID()).thenReturn("anonymous");
+        when(request.getResourceResolver()).thenReturn(resolver);
+        when(request.getServerName()).thenReturn("www.example.com");
+        when(request.getRequestURI()).thenReturn("/content/portfolio/us/en.html");
+
+        context.registerService(RenderedPageStore.class, pageStore);
+        fixture = context.registerInjectActivateService(new RenderedPageCacheFilter(), "enabled", true);
+    }
+
+    @Test
+    void storeAndReplay() {
+        MockSlingHttpServletResponse rendered = context.response();
+        rendered.setContentType("text/html;charset=UTF-8");
+        rendered.setHeader("Cache-Control", "max-age=300");
+        rendered.addHeader("Content-Security-Policy", "default-src 'self'");
+        rendered.addHeader("Set-Cookie", "session=1");
+
+        String page = RenderedPageCacheFilter.store(rendered, "<html></html>");
+
+        MockSlingHttpServletResponse replayed = new MockSlingHttpServletResponse();
+        assertEquals("<html></html>", RenderedPageCacheFilter.replay(page, replayed));
+        assertEquals("text/html;charset=UTF-8", replayed.getContentType());
+        assertEquals("max-age=300", replayed.getHeader("Cache-Control"));
+        assertEquals("default-src 'self'", replayed.getHeader("Content-Security-Policy"));
+        assertNull(replayed.getHeader("Set-Cookie"));
+    }
+
+    @Test
+    void doFilterHit() throws IOException, ServletException {
+        when(pageStore.get(KEY)).thenReturn("Content-Type: text/html;charset=UTF-8\n"
+                + "Content-Language: en\n\n<html></html>");
+        MockSlingHttpServletResponse response = context.response();
+        FilterChain chain = mock(FilterChain.class);
+
+        fixture.doFilter(request, response, chain);
+
+        verify(chain, never()).doFilter(any(), any());
+        assertEquals("HIT", response.getHeader(RenderedPageCacheFilter.CACHE_HEADER));
+        assertEquals("en", response.getHeader("Content-Language"));
+        assertEquals("<html></html>", response.getOutputAsString());
+    }
+
+    @Test
+    void doFilterKeysByServerName() throws IOException, ServletException {
+        when(request.getServerName()).thenReturn("other.example.com");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doFilter(request, response, mock(FilterChain.class));
+
+        verify(pageStore).get("other.example.com/content/portfolio/us/en.html");
+        assertEquals("MISS", response.getHeader(RenderedPageCacheFilter.CACHE_HEADER));
+    }
+}
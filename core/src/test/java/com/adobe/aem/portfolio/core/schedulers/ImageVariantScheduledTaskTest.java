@@ -0,0 +1,112 @@
+package com.adobe.aem.portfolio.core.schedulers;
+
+import java.io.IOException;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImageVariantScheduledTaskTest {
+
+    @Mock
+    private ContentTraversal contentTraversal;
+
+    @Mock
+    private ImageVariantService imageVariants;
+
+    @InjectMocks
+    private ImageVariantScheduledTask fixture;
+
+    private Asset asset;
+
+    @BeforeEach
+    void setup() throws LoginException {
+        asset = mock(Asset.class);
+        when(asset.getOriginal()).thenReturn(mock(Rendition.class));
+        when(asset.getMimeType()).thenReturn("image/jpeg");
+        when(imageVariants.getFormat("image/jpeg")).thenReturn("image/jpeg");
+        when(imageVariants.bucket(anyInt())).thenAnswer(invocation -> {
+            int width = invocation.getArgument(0);
+            return width <= 480 ? 480 : 960;
+        });
+
+        Resource folder = mock(Resource.class);
+        when(folder.getName()).thenReturn("portfolio");
+        Resource image = mock(Resource.class);
+        when(image.getName()).thenReturn("avatar.jpg");
+        when(image.getPath()).thenReturn("/content/dam/portfolio/avatar.jpg");
+        when(image.adaptTo(Asset.class)).thenReturn(asset);
+        when(contentTraversal.traverse(eq("/content/dam/portfolio"), any())).thenAnswer(invocation -> {
+            ContentTraversal.Visitor visitor = invocation.getArgument(1);
+            assertEquals(ContentTraversal.Action.CONTINUE, visitor.visit(folder));
+            assertEquals(ContentTraversal.Action.SKIP_CHILDREN, visitor.visit(image));
+            return 2L;
+        });
+    }
+
+    @Test
+    void runEncodesMissingVariants() throws IOException {
+        when(imageVariants.isCached(asset, 480, "image/jpeg")).thenReturn(true);
+
+        fixture.activate(config(true));
+        fixture.run();
+
+        verify(imageVariants, never()).getVariant(asset, 480, "image/jpeg");
+        verify(imageVariants).getVariant(asset, 960, "image/jpeg");
+        verify(imageVariants, never()).getVariant(eq(asset), eq(320), anyString());
+        verify(imageVariants, never()).getVariant(eq(asset), eq(640), anyString());
+    }
+
+    @Test
+    void runEncodesEachBucketOnce() throws IOException {
+        ImageVariantScheduledTask.Config config = config(true);
+        when(config.widths()).thenReturn(new int[] { 320, 400, 640 });
+
+        fixture.activate(config);
+        fixture.run();
+
+        verify(imageVariants).getVariant(asset, 480, "image/jpeg");
+        verify(imageVariants).getVariant(asset, 960, "image/jpeg");
+    }
+
+    @Test
+    void runDisabled() throws LoginException, IOException {
+        fixture.activate(config(false));
+        fixture.run();
+
+        verify(contentTraversal, never()).traverse(anyString(), any());
+        verify(imageVariants, never()).getVariant(any(), anyInt(), anyString());
+    }
+
+    private static ImageVariantScheduledTask.Config config(boolean enabled) {
+        ImageVariantScheduledTask.Config config = mock(ImageVariantScheduledTask.Config.class);
+        when(config.enabled()).thenReturn(enabled);
+        when(config.root_path()).thenReturn("/content/dam/portfolio");
+        when(config.widths()).thenReturn(new int[] { 320, 640 });
+        return config;
+    }
+}
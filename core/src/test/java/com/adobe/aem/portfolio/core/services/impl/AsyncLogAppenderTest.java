@@ -0,0 +1,79 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class AsyncLogAppenderTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    // the tests log through their own Logback context, SLF4J is bound to slf4j-test
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final ListAppender<ILoggingEvent> errorLog = new ListAppender<>();
+
+    private AsyncLogAppender fixture;
+
+    @BeforeEach
+    void setup() {
+        errorLog.setContext(loggerContext);
+        errorLog.setName("/logs/error.log");
+        errorLog.start();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(errorLog);
+
+        fixture = context.registerInjectActivateService(new AsyncLogAppender());
+        // as the Sling log support does with the appender service
+        fixture.setContext(loggerContext);
+        fixture.start();
+        loggerContext.getLogger("com.adobe.aem.portfolio").addAppender(fixture);
+    }
+
+    @Test
+    void appendWritesToTheRootAppenderOnce() {
+        Logger logger = loggerContext.getLogger("com.adobe.aem.portfolio.core.servlets.BulkImportServlet");
+        for (int i = 0; i < 10; i++) {
+            logger.info("Imported record {}", i);
+        }
+        // writes the queued events
+        fixture.stop();
+
+        assertEquals(10, errorLog.list.size());
+        assertEquals("Imported record 9", errorLog.list.get(9).getFormattedMessage());
+        assertTrue(errorLog.isStarted());
+    }
+
+    @Test
+    void stopMakesTheLoggersAdditiveAgain() {
+        Logger logger = loggerContext.getLogger("com.adobe.aem.portfolio");
+        assertFalse(logger.isAdditive());
+
+        fixture.stop();
+        logger.warn("Written synchronously");
+
+        assertTrue(logger.isAdditive());
+        assertEquals(1, errorLog.list.size());
+    }
+
+    @Test
+    void startAgainAfterStop() {
+        fixture.stop();
+        fixture.start();
+        loggerContext.getLogger("com.adobe.aem.portfolio.core.models.CardModel").info("Card rendered");
+        fixture.stop();
+
+        assertEquals(1, errorLog.list.size());
+    }
+}
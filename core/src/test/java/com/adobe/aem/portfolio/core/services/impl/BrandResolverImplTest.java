@@ -0,0 +1,101 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(AemContextExtension.class)
+class BrandResolverImplTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private BrandResolverImpl fixture;
+
+    @BeforeEach
+    void setup() throws PersistenceException {
+        context.registerInjectActivateService(new ResourceResolverPoolImpl());
+        fixture = context.registerInjectActivateService(new BrandResolverImpl());
+
+        context.create().page("/content/portfolio", null, "Portfolio");
+        context.create().page("/content/portfolio/us", null, "US", "brand", "acme");
+        context.create().page("/content/portfolio/us/en", null, "English");
+        context.create().page("/content/portfolio/us/en/about", null, "About");
+        context.create().page("/content/portfolio/us/es", null, "Spanish", "brand", "acme-es");
+        context.create().page("/content/portfolio/fr", null, "France");
+        // brands are read with a resolver of the pool
+        context.resourceResolver().commit();
+    }
+
+    @Test
+    void getBrand() {
+        assertEquals("acme", brand("/content/portfolio/us"));
+        assertEquals("acme", brand("/content/portfolio/us/en/about"));
+        assertEquals("acme-es", brand("/content/portfolio/us/es"));
+        assertNull(brand("/content/portfolio/fr"));
+    }
+
+    @Test
+    void getBrandOfComponent() {
+        Resource component = context.create().resource("/content/portfolio/us/en/jcr:content/root/text");
+
+        assertEquals("acme", fixture.getBrand(component));
+        assertEquals("acme", brand("/content/portfolio/us/en/jcr:content"));
+    }
+
+    @Test
+    void brandIsCachedUntilInvalidated() throws PersistenceException {
+        assertEquals("acme", brand("/content/portfolio/us/en/about"));
+        setBrand("/content/portfolio/us", "globex");
+        assertEquals("acme", brand("/content/portfolio/us/en/about"));
+        assertEquals("acme", brand("/content/portfolio/us/en"));
+
+        fixture.invalidate("/content/portfolio/us/jcr:content");
+
+        assertEquals("globex", brand("/content/portfolio/us/en/about"));
+        assertEquals("globex", brand("/content/portfolio/us/en"));
+    }
+
+    @Test
+    void invalidateSubtree() throws PersistenceException {
+        assertEquals("acme", brand("/content/portfolio/us/en/about"));
+        assertEquals("acme-es", brand("/content/portfolio/us/es"));
+        setBrand("/content/portfolio/us/en", "initech");
+        setBrand("/content/portfolio/us/es", "initech-es");
+
+        fixture.invalidate("/content/portfolio/us/en");
+
+        assertEquals("initech", brand("/content/portfolio/us/en/about"));
+        assertEquals("acme-es", brand("/content/portfolio/us/es"));
+
+        fixture.invalidate("/");
+
+        assertEquals("initech-es", brand("/content/portfolio/us/es"));
+    }
+
+    @Test
+    void pagePath() {
+        assertEquals("/content/portfolio/us", BrandResolverImpl.pagePath("/content/portfolio/us"));
+        assertEquals("/content/portfolio/us", BrandResolverImpl.pagePath("/content/portfolio/us/jcr:content"));
+        assertEquals("/content/portfolio/us", BrandResolverImpl.pagePath("/content/portfolio/us/jcr:content/root"));
+    }
+
+    private String brand(String path) {
+        return fixture.getBrand(context.resourceResolver().getResource(path));
+    }
+
+    private void setBrand(String path, String brand) throws PersistenceException {
+        context.resourceResolver().getResource(path + "/jcr:content").adaptTo(ModifiableValueMap.class)
+                .put("brand", brand);
+        context.resourceResolver().commit();
+    }
+}
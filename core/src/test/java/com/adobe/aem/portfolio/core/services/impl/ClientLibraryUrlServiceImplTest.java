@@ -0,0 +1,95 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.adobe.granite.ui.clientlibs.ClientLibrary;
+import com.adobe.granite.ui.clientlibs.HtmlLibrary;
+import com.adobe.granite.ui.clientlibs.HtmlLibraryManager;
+import com.adobe.granite.ui.clientlibs.LibraryType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ClientLibraryUrlServiceImplTest {
+
+    private static final String PATH = "/apps/portfolio/clientlibs/clientlib-page";
+
+    @Mock
+    private HtmlLibraryManager htmlLibraryManager;
+
+    @Mock
+    private ClientLibrary clientLibrary;
+
+    @Mock
+    private HtmlLibrary htmlLibrary;
+
+    @InjectMocks
+    private ClientLibraryUrlServiceImpl fixture;
+
+    @BeforeEach
+    void setup() throws IOException {
+        when(clientLibrary.getPath()).thenReturn(PATH);
+        when(clientLibrary.allowProxy()).thenReturn(true);
+        when(htmlLibraryManager.isMinifyEnabled()).thenReturn(true);
+        when(htmlLibraryManager.getLibraries(any(String[].class), eq(LibraryType.CSS), eq(false), eq(true)))
+                .thenReturn(Collections.singletonList(clientLibrary));
+        when(htmlLibraryManager.getLibrary(LibraryType.CSS, PATH)).thenReturn(htmlLibrary);
+        when(htmlLibrary.getLastModified()).thenReturn(1L);
+        when(htmlLibrary.getInputStream(anyBoolean()))
+                .thenAnswer(invocation -> new ByteArrayInputStream("body{}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void getUrls() {
+        List<String> urls = fixture.getUrls(new String[] { "portfolio.page" }, LibraryType.CSS);
+
+        // md5("body{}")
+        assertEquals(Collections.singletonList(
+                "/etc.clientlibs/portfolio/clientlibs/clientlib-page.lc-aa676972bbd2b68e94ef8e91e81d20be-lc.min.css"),
+                urls);
+    }
+
+    @Test
+    void getUrlsWithoutDependencies() {
+        when(htmlLibraryManager.getLibraries(any(String[].class), eq(LibraryType.CSS), eq(false), eq(false)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(Collections.emptyList(),
+                fixture.getUrls(new String[] { "portfolio.site" }, LibraryType.CSS, false));
+        verify(htmlLibraryManager).getLibraries(any(String[].class), eq(LibraryType.CSS), eq(false), eq(false));
+    }
+
+    @Test
+    void hashIsCachedUntilTheLibraryChanges() throws IOException {
+        String first = fixture.getUrls(new String[] { "portfolio.page" }, LibraryType.CSS).get(0);
+        fixture.getUrls(new String[] { "portfolio.page" }, LibraryType.CSS);
+        verify(htmlLibrary, times(1)).getInputStream(true);
+
+        when(htmlLibrary.getLastModified()).thenReturn(2L);
+        when(htmlLibrary.getInputStream(anyBoolean()))
+                .thenAnswer(invocation -> new ByteArrayInputStream("body{margin:0}".getBytes(StandardCharsets.UTF_8)));
+
+        assertNotEquals(first, fixture.getUrls(new String[] { "portfolio.page" }, LibraryType.CSS).get(0));
+    }
+}
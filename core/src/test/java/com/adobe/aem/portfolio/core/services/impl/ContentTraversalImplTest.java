@@ -0,0 +1,115 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class ContentTraversalImplTest {
+
+    private static final String ROOT = "/content/portfolio/us/en";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private ContentTraversalImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                context.create().resource(ROOT + "/section" + i + "/item" + j, "index", j);
+            }
+        }
+
+        context.registerInjectActivateService(new ResourceResolverPoolImpl());
+        fixture = context.registerInjectActivateService(new ContentTraversalImpl());
+    }
+
+    @Test
+    void traverseVisitsEveryResourceOnce() throws Exception {
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+
+        long visited = fixture.traverse(ROOT, resource -> {
+            assertTrue(paths.add(resource.getPath()));
+            return ContentTraversal.Action.CONTINUE;
+        });
+
+        assertEquals(31, visited);
+        assertEquals(31, paths.size());
+        assertTrue(paths.contains(ROOT + "/section4/item4"));
+    }
+
+    @Test
+    void traverseSkipsChildren() throws Exception {
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+
+        fixture.traverse(ROOT, resource -> {
+            paths.add(resource.getPath());
+            return resource.getName().startsWith("section")
+                    ? ContentTraversal.Action.SKIP_CHILDREN
+                    : ContentTraversal.Action.CONTINUE;
+        });
+
+        assertEquals(6, paths.size());
+        assertFalse(paths.contains(ROOT + "/section0/item0"));
+    }
+
+    @Test
+    void traverseStops() throws Exception {
+        long visited = fixture.traverse(ROOT, resource -> ContentTraversal.Action.STOP);
+
+        assertEquals(1, visited);
+    }
+
+    @Test
+    void traverseMissingRoot() throws Exception {
+        assertEquals(0, fixture.traverse("/content/missing", resource -> ContentTraversal.Action.CONTINUE));
+    }
+
+    @Test
+    void traversePropagatesVisitorFailures() {
+        assertThrows(IllegalStateException.class, () -> fixture.traverse(ROOT, resource -> {
+            throw new IllegalStateException("visitor failed");
+        }));
+    }
+
+    @Test
+    void cancel() throws Exception {
+        CountDownLatch visiting = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        Future<Long> traversal = fixture.start(ROOT, resource -> {
+            visiting.countDown();
+            try {
+                cancelled.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ContentTraversal.Action.CONTINUE;
+        });
+        visiting.await(5, TimeUnit.SECONDS);
+
+        assertTrue(traversal.cancel(true));
+        cancelled.countDown();
+
+        assertTrue(traversal.isCancelled());
+        assertThrows(CancellationException.class, traversal::get);
+    }
+}
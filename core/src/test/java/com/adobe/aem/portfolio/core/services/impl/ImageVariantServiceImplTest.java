@@ -0,0 +1,172 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.adobe.aem.portfolio.core.services.ImageVariantService;
+import com.day.cq.dam.api.Asset;
+import com.day.cq.dam.api.Rendition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageVariantServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ImageVariantServiceImpl fixture = new ImageVariantServiceImpl();
+
+    @BeforeEach
+    void setup() throws IOException {
+        fixture.open(tempDir, config(64));
+    }
+
+    @Test
+    void getUrl() {
+        assertEquals("/content/dam/portfolio/avatar.jpg.portfolio-image.640.jpg",
+                fixture.getUrl("/content/dam/portfolio/avatar.jpg", 500));
+        assertEquals("/content/dam/portfolio/hero.png.portfolio-image.1920.png",
+                fixture.getUrl("/content/dam/portfolio/hero.png", 4000));
+        assertEquals("/content/dam/portfolio/badge.gif.portfolio-image.160.png",
+                fixture.getUrl("/content/dam/portfolio/badge.gif", 100));
+        assertEquals("/content/dam/portfolio/logo.svg", fixture.getUrl("/content/dam/portfolio/logo.svg", 320));
+        assertEquals("https://example.com/a.jpg", fixture.getUrl("https://example.com/a.jpg", 320));
+        assertNull(fixture.getUrl(null, 320));
+    }
+
+    @Test
+    void getFormat() {
+        assertEquals("image/jpeg", fixture.getFormat("image/jpeg"));
+        assertEquals("image/png", fixture.getFormat("image/gif"));
+    }
+
+    @Test
+    void getFormatOfExtension() {
+        assertEquals("image/jpeg", fixture.getFormatOfExtension("JPG"));
+        assertEquals("image/png", fixture.getFormatOfExtension("png"));
+        // the JDK has no WebP or AVIF writer
+        assertNull(fixture.getFormatOfExtension("webp"));
+        assertNull(fixture.getFormatOfExtension("avif"));
+        assertNull(fixture.getFormatOfExtension("gif"));
+        assertNull(fixture.getFormatOfExtension(null));
+    }
+
+    @Test
+    void getVariant() throws IOException {
+        Rendition original = original(1200, 800);
+        Asset asset = asset("/content/dam/portfolio/avatar.png", original, "abc");
+
+        ImageVariantService.Variant variant = fixture.getVariant(asset, 320, "image/jpeg");
+        ImageVariantService.Variant cached = fixture.getVariant(asset, 320, "image/jpeg");
+
+        BufferedImage image = ImageIO.read(variant.getFile().toFile());
+        assertEquals(320, image.getWidth());
+        assertEquals(213, image.getHeight());
+        assertEquals("image/jpeg", variant.getMimeType());
+        assertEquals(variant.getETag(), cached.getETag());
+        verify(original, times(1)).getStream();
+        assertTrue(fixture.isCached(asset, 320, "image/jpeg"));
+        assertFalse(fixture.isCached(asset, 640, "image/jpeg"));
+    }
+
+    @Test
+    void getVariantOfChangedOriginal() throws IOException {
+        ImageVariantService.Variant before =
+                fixture.getVariant(asset("/content/dam/portfolio/avatar.png", original(400, 400), "abc"), 160,
+                        "image/png");
+        ImageVariantService.Variant after =
+                fixture.getVariant(asset("/content/dam/portfolio/avatar.png", original(400, 400), "def"), 160,
+                        "image/png");
+
+        assertNotEquals(before.getETag(), after.getETag());
+    }
+
+    @Test
+    void doesNotUpscale() throws IOException {
+        ImageVariantService.Variant variant =
+                fixture.getVariant(asset("/content/dam/portfolio/icon.png", original(100, 50), "abc"), 640,
+                        "image/png");
+
+        assertEquals(100, ImageIO.read(variant.getFile().toFile()).getWidth());
+    }
+
+    @Test
+    void getVariantOfNonImage() throws IOException {
+        Rendition original = mock(Rendition.class);
+        when(original.getStream()).thenReturn(new ByteArrayInputStream("%PDF-1.7".getBytes()));
+
+        assertNull(fixture.getVariant(asset("/content/dam/portfolio/cv.pdf", original, "abc"), 320, "image/jpeg"));
+    }
+
+    @Test
+    void evictsLeastRecentlyServed() throws IOException {
+        ImageVariantServiceImpl small = new ImageVariantServiceImpl();
+        small.open(tempDir.resolve("small"), config(0));
+
+        Path first = small.getVariant(asset("/content/dam/portfolio/a.png", original(400, 400), "a"), 160,
+                "image/png").getFile();
+        Path second = small.getVariant(asset("/content/dam/portfolio/b.png", original(400, 400), "b"), 160,
+                "image/png").getFile();
+
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    @Test
+    void restoresCache() throws IOException {
+        Rendition original = original(400, 400);
+        Asset asset = asset("/content/dam/portfolio/avatar.png", original, "abc");
+        fixture.getVariant(asset, 160, "image/png");
+
+        ImageVariantServiceImpl restarted = new ImageVariantServiceImpl();
+        restarted.open(tempDir, config(64));
+        restarted.getVariant(asset, 160, "image/png");
+
+        verify(original, times(1)).getStream();
+    }
+
+    private static Asset asset(String path, Rendition original, String sha1) {
+        Asset asset = mock(Asset.class);
+        when(asset.getPath()).thenReturn(path);
+        when(asset.getOriginal()).thenReturn(original);
+        when(asset.getMetadataValue("dam:sha1")).thenReturn(sha1);
+        return asset;
+    }
+
+    private static Rendition original(int width, int height) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", png);
+        byte[] bytes = png.toByteArray();
+        Rendition original = mock(Rendition.class);
+        when(original.getMimeType()).thenReturn("image/png");
+        when(original.getStream()).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+        return original;
+    }
+
+    private static ImageVariantServiceImpl.Config config(int cacheSizeMb) {
+        ImageVariantServiceImpl.Config config = mock(ImageVariantServiceImpl.Config.class);
+        when(config.widths()).thenReturn(new int[] { 160, 320, 640, 960, 1280, 1920 });
+        when(config.cache_size_mb()).thenReturn(cacheSizeMb);
+        when(config.max_concurrent_encodings()).thenReturn(2);
+        when(config.quality()).thenReturn(0.8);
+        return config;
+    }
+}
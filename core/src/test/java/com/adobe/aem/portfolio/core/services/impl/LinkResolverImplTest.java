@@ -0,0 +1,77 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LinkResolverImplTest {
+
+    @Mock
+    private ResourceResolver resolver;
+
+    private final LinkResolverImpl fixture = new LinkResolverImpl();
+
+    @BeforeEach
+    void setup() {
+        when(resolver.map(anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0, String.class).replace("/content", "/mapped"));
+    }
+
+    @Test
+    void resolve() {
+        String[] resolved = fixture.resolve(resolver,
+                "/content/portfolio/us/en/about",
+                "/content/portfolio/us/en.html#now",
+                "/content/dam/portfolio/cv.pdf",
+                "https://github.com",
+                null);
+
+        assertArrayEquals(new String[] {
+                "/mapped/portfolio/us/en/about.html",
+                "/mapped/portfolio/us/en.html#now",
+                "/content/dam/portfolio/cv.pdf",
+                "https://github.com",
+                null
+        }, resolved);
+        verify(resolver, never()).map(startsWith("/content/dam/"));
+    }
+
+    @Test
+    void resolvedLinksAreCachedUntilInvalidated() {
+        fixture.resolve(resolver, "/content/portfolio/us/en/about");
+        fixture.resolve(resolver, "/content/portfolio/us/en/about");
+        verify(resolver, times(1)).map("/content/portfolio/us/en/about.html");
+
+        fixture.invalidate();
+        fixture.resolve(resolver, "/content/portfolio/us/en/about");
+        verify(resolver, times(2)).map("/content/portfolio/us/en/about.html");
+    }
+
+    @Test
+    void linksMappedDuringInvalidationAreNotCached() {
+        when(resolver.map("/content/portfolio/us/en/about.html")).thenAnswer(invocation -> {
+            fixture.invalidate();
+            return "/us/en/about.html";
+        });
+
+        fixture.resolve(resolver, "/content/portfolio/us/en/about");
+        fixture.resolve(resolver, "/content/portfolio/us/en/about");
+
+        verify(resolver, times(2)).map("/content/portfolio/us/en/about.html");
+    }
+}
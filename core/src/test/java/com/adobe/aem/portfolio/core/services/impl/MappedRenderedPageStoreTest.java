@@ -0,0 +1,94 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedRenderedPageStoreTest {
+
+    private static final long CAPACITY = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private Path storeFile;
+
+    private MappedRenderedPageStore fixture = new MappedRenderedPageStore();
+
+    @BeforeEach
+    void setup() throws IOException {
+        storeFile = tempDir.resolve("portfolio/rendered-pages.bin");
+        fixture.open(storeFile, CAPACITY, 0.5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.close();
+    }
+
+    @Test
+    void putAndGet() {
+        assertTrue(fixture.put("/content/portfolio/us/en.html", "<html>en</html>"));
+
+        assertEquals("<html>en</html>", fixture.get("/content/portfolio/us/en.html"));
+        assertNull(fixture.get("/content/portfolio/us/fr.html"));
+    }
+
+    @Test
+    void survivesRestart() throws IOException {
+        fixture.put("/content/portfolio/us/en.html", "<html>en</html>");
+        fixture.put("/content/portfolio/us/en/about.html", "<html>about</html>");
+        fixture.put("/content/portfolio/us/en.html", "<html>en v2</html>");
+
+        fixture.close();
+        fixture.open(storeFile, CAPACITY, 0.5);
+
+        assertEquals(2, fixture.size());
+        assertEquals("<html>en v2</html>", fixture.get("/content/portfolio/us/en.html"));
+        assertEquals("<html>about</html>", fixture.get("/content/portfolio/us/en/about.html"));
+    }
+
+    @Test
+    void evictsProbationBeforeProtected() {
+        String body = new String(new char[1000]).replace('\0', 'x');
+        fixture.put("/content/portfolio/us/en.html", "<html>en</html>");
+        fixture.get("/content/portfolio/us/en.html");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(fixture.put("/content/portfolio/us/en/page" + i + ".html", body));
+        }
+
+        assertNotNull(fixture.get("/content/portfolio/us/en.html"));
+        assertNotNull(fixture.get("/content/portfolio/us/en/page9.html"));
+        assertNull(fixture.get("/content/portfolio/us/en/page0.html"));
+    }
+
+    @Test
+    void rejectsPagesLargerThanTheStore() {
+        String body = new String(new char[(int) CAPACITY]).replace('\0', 'x');
+
+        assertFalse(fixture.put("/content/portfolio/us/en.html", body));
+        assertEquals(0, fixture.size());
+    }
+
+    @Test
+    void clear() throws IOException {
+        fixture.put("/content/portfolio/us/en.html", "<html>en</html>");
+        fixture.clear();
+
+        fixture.close();
+        fixture.open(storeFile, CAPACITY, 0.5);
+
+        assertEquals(0, fixture.size());
+    }
+}
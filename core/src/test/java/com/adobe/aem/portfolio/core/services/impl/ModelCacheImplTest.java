@@ -0,0 +1,95 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import javax.script.Bindings;
+import javax.script.SimpleBindings;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.scripting.SlingBindings;
+import org.apache.sling.scripting.sightly.render.RenderContext;
+import org.apache.sling.scripting.sightly.use.ProviderOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.models.FooterModel;
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class ModelCacheImplTest {
+
+    private static final String FOOTER =
+            "/content/experience-fragments/portfolio/footer/master/jcr:content/root/footer";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private ModelCacheImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        context.addModelsForClasses(FooterModel.class);
+        context.create().resource(FOOTER, "githubLink", "https://github.com/portfolio");
+
+        fixture = context.registerInjectActivateService(new ModelCacheImpl());
+    }
+
+    @Test
+    void adaptOncePerRequest() {
+        FooterModel first = fixture.adapt(context.request(), resource(), FooterModel.class);
+        FooterModel second = fixture.adapt(context.request(), resource(), FooterModel.class);
+
+        assertEquals("https://github.com/portfolio", first.getGithubLink());
+        assertSame(first, second);
+        assertEquals(1, fixture.getAvoidedAdaptations());
+    }
+
+    @Test
+    void adaptWithoutRequest() {
+        assertNotSame(fixture.adapt(null, resource(), FooterModel.class),
+                fixture.adapt(null, resource(), FooterModel.class));
+        assertEquals(0, fixture.getAvoidedAdaptations());
+    }
+
+    @Test
+    void provide() {
+        ProviderOutcome first = fixture.provide(FooterModel.class.getName(), renderContext(), new SimpleBindings());
+        ProviderOutcome second = fixture.provide(FooterModel.class.getName(), renderContext(), new SimpleBindings());
+
+        assertTrue(first.isSuccess());
+        assertSame(first.getResult(), second.getResult());
+        assertEquals(1, fixture.getAvoidedAdaptations());
+    }
+
+    @Test
+    void provideLeavesOtherUsesToOtherProviders() {
+        Bindings arguments = new SimpleBindings();
+        arguments.put("variant", "mobile");
+
+        assertFalse(fixture.provide(NowSectionModel.class.getName(), renderContext(), new SimpleBindings())
+                .isSuccess());
+        assertFalse(fixture.provide(FooterModel.class.getName(), renderContext(), arguments).isSuccess());
+    }
+
+    private Resource resource() {
+        return context.resourceResolver().getResource(FOOTER);
+    }
+
+    private RenderContext renderContext() {
+        Bindings bindings = new SimpleBindings();
+        bindings.put(SlingBindings.REQUEST, context.request());
+        bindings.put(SlingBindings.RESOURCE, resource());
+        RenderContext renderContext = mock(RenderContext.class);
+        when(renderContext.getBindings()).thenReturn(bindings);
+        return renderContext;
+    }
+}
@@ -0,0 +1,77 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.services.NavigationTree;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(AemContextExtension.class)
+class NavigationTreeServiceImplTest {
+
+    private static final String HEADER = "/content/experience-fragments/portfolio/header/master/jcr:content/root/header";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private NavigationTreeServiceImpl fixture;
+
+    private Resource header;
+
+    @BeforeEach
+    void setup() {
+        context.registerInjectActivateService(new LinkResolverImpl());
+        fixture = context.registerInjectActivateService(new NavigationTreeServiceImpl());
+
+        header = context.create().resource(HEADER);
+        context.create().resource(HEADER + "/aboutUsNavigation/item0",
+                "aboutUsNavTitle", "Experience", "aboutUsSubNavUrl", "/content/portfolio/us/en/experience");
+        context.create().resource(HEADER + "/aboutUsNavigation/item1",
+                "aboutUsNavTitle", "GitHub", "aboutUsSubNavUrl", "https://github.com");
+    }
+
+    @Test
+    void getTree() {
+        NavigationTree tree = fixture.getTree(header);
+
+        assertEquals(2, tree.size());
+        assertEquals("Experience", tree.getItems().get(0).getTitle());
+        assertEquals("/content/portfolio/us/en/experience.html", tree.getItems().get(0).getUrl());
+        assertEquals("https://github.com", tree.getUrl(1));
+    }
+
+    @Test
+    void itemsAreCachedUntilInvalidated() {
+        assertEquals("GitHub", fixture.getTree(header).getTitle(1));
+        context.resourceResolver().getResource(HEADER + "/aboutUsNavigation/item1")
+                .adaptTo(ModifiableValueMap.class).put("aboutUsNavTitle", "Source");
+
+        fixture.invalidate("/content/portfolio/us/en");
+        assertEquals("GitHub", fixture.getTree(header).getTitle(1));
+
+        fixture.invalidate(HEADER + "/aboutUsNavigation/item1");
+        assertEquals("Source", fixture.getTree(header).getTitle(1));
+    }
+
+    @Test
+    void invalidateAll() {
+        fixture.getTree(header);
+        context.resourceResolver().getResource(HEADER + "/aboutUsNavigation/item0")
+                .adaptTo(ModifiableValueMap.class).put("aboutUsNavTitle", "Career");
+
+        fixture.invalidate("/");
+
+        assertEquals("Career", fixture.getTree(header).getTitle(0));
+    }
+
+    @Test
+    void getTreeWithoutNavigation() {
+        assertEquals(0, fixture.getTree(context.create().resource("/content/portfolio/header")).size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.adobe.aem.portfolio.core.services.ResourceResolverPool;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ResourceResolverPoolImplTest {
+
+    @Mock
+    private ResourceResolverFactory resolverFactory;
+
+    @InjectMocks
+    private ResourceResolverPoolImpl fixture;
+
+    @BeforeEach
+    void setup() throws LoginException {
+        when(resolverFactory.getServiceResourceResolver(anyMap())).thenAnswer(invocation -> {
+            ResourceResolver resolver = mock(ResourceResolver.class);
+            when(resolver.isLive()).thenReturn(true);
+            return resolver;
+        });
+        fixture.activate(config(1, 10, 600));
+    }
+
+    @Test
+    void borrowReusesAndRefreshesResolvers() throws LoginException {
+        ResourceResolver first;
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            first = lease.getResolver();
+        }
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            assertSame(first, lease.getResolver());
+        }
+        verify(first, times(1)).refresh();
+        verify(first, never()).close();
+        verify(resolverFactory, times(1)).getServiceResourceResolver(anyMap());
+    }
+
+    @Test
+    void borrowReplacesClosedResolvers() throws LoginException {
+        ResourceResolver first;
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            first = lease.getResolver();
+        }
+        when(first.isLive()).thenReturn(false);
+
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            assertNotSame(first, lease.getResolver());
+        }
+    }
+
+    @Test
+    void borrowOpensTemporaryResolverWhenExhausted() throws LoginException {
+        try (ResourceResolverPool.Lease pooled = fixture.borrow()) {
+            ResourceResolver temporary;
+            try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+                temporary = lease.getResolver();
+                assertNotSame(pooled.getResolver(), temporary);
+            }
+            verify(temporary).close();
+        }
+    }
+
+    @Test
+    void releaseRevertsChanges() throws LoginException {
+        ResourceResolver resolver;
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            resolver = lease.getResolver();
+            when(resolver.hasChanges()).thenReturn(true);
+        }
+        verify(resolver).revert();
+    }
+
+    @Test
+    void releaseAfterDeactivateClosesResolver() throws LoginException {
+        ResourceResolver resolver;
+        try (ResourceResolverPool.Lease lease = fixture.borrow()) {
+            resolver = lease.getResolver();
+            fixture.deactivate();
+        }
+        verify(resolver).close();
+    }
+
+    private static ResourceResolverPoolImpl.Config config(int size, long timeout, long maxAge) {
+        ResourceResolverPoolImpl.Config config = mock(ResourceResolverPoolImpl.Config.class);
+        when(config.pool_size()).thenReturn(size);
+        when(config.borrow_timeout()).thenReturn(timeout);
+        when(config.max_age()).thenReturn(maxAge);
+        return config;
+    }
+}
@@ -0,0 +1,85 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.SearchHit;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class SearchIndexImplTest {
+
+    private static final String ROOT = "/content/portfolio/us/en";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private SearchIndexImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        context.addModelsForClasses(WritingSectionModel.class);
+        context.create().page(ROOT, null, "Home");
+        context.create().page(ROOT + "/components", null, "AEM Components");
+        Page writing = context.create().page(ROOT + "/writing", null, "Writing");
+        context.create().resource(writing.getContentResource().getPath() + "/root/writing",
+                "sling:resourceType", WritingSectionModel.RESOURCE_TYPE);
+        context.create().resource(writing.getContentResource().getPath() + "/root/writing/articles/item0",
+                "title", "Caching experience fragments", "description", "Dispatcher tips");
+
+        context.registerInjectActivateService(new LinkResolverImpl());
+        context.registerInjectActivateService(new ResourceResolverPoolImpl());
+        context.registerInjectActivateService(new ContentTraversalImpl());
+        fixture = context.registerInjectActivateService(new SearchIndexImpl());
+    }
+
+    @Test
+    void search() {
+        List<SearchHit> hits = fixture.search("comp", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("AEM Components", hits.get(0).getTitle());
+        assertEquals(ROOT + "/components.html", hits.get(0).getUrl());
+    }
+
+    @Test
+    void searchWithHugeLimit() {
+        assertEquals(1, fixture.search("comp", Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void searchMatchesAllWords() {
+        assertEquals(ROOT + "/writing", fixture.search("dispatcher cach", 10).get(0).getPath());
+        assertTrue(fixture.search("dispatcher components", 10).isEmpty());
+        assertTrue(fixture.search("", 10).isEmpty());
+    }
+
+    @Test
+    void update() throws Exception {
+        fixture.search("aem", 10);
+
+        ResourceResolver resolver = context.resourceResolver();
+        resolver.delete(resolver.getResource(ROOT + "/components"));
+        context.create().page(ROOT + "/aem", null, "AEM as a Cloud Service");
+        resolver.commit();
+        fixture.update(Arrays.asList(ROOT + "/components", ROOT + "/aem/jcr:content"));
+
+        List<SearchHit> hits = fixture.search("aem", 10);
+        assertEquals(1, hits.size());
+        assertEquals(ROOT + "/aem", hits.get(0).getPath());
+        assertTrue(fixture.search("components", 10).isEmpty());
+        fixture.update(Collections.singletonList("/content/dam/portfolio"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class SitemapGeneratorImplTest {
+
+    private static final String ROOT = "/content/portfolio/us/en";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private SitemapGeneratorImpl fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().page(ROOT);
+        context.create().page(ROOT + "/about");
+        context.create().page(ROOT + "/work");
+        context.create().resource(SitemapGeneratorImpl.STORAGE_PATH);
+        fixture = context.registerInjectActivateService(new SitemapGeneratorImpl(), "shard.size", 2);
+    }
+
+    @Test
+    void update() throws IOException {
+        fixture.update();
+
+        assertEquals(2, fixture.getShardCount());
+        String first = shard(0);
+        assertTrue(first.contains("/content/portfolio/us/en.html</loc>"));
+        assertTrue(first.contains("/content/portfolio/us/en/about.html</loc>"));
+        assertTrue(shard(1).contains("/content/portfolio/us/en/work.html</loc>"));
+        assertTrue(index().contains("/content/portfolio/us/en.sitemap.1.xml</loc>"));
+    }
+
+    @Test
+    void updateAppliesChangedPages() throws IOException {
+        fixture.update();
+
+        ResourceResolver resolver = context.resourceResolver();
+        resolver.delete(resolver.getResource(ROOT + "/about"));
+        resolver.commit();
+        fixture.markChanged(ROOT + "/about");
+        fixture.update();
+
+        assertFalse(shard(0).contains("/about.html"));
+        assertTrue(shard(1).contains("/work.html"));
+
+        context.create().page(ROOT + "/contact");
+        resolver.commit();
+        fixture.markChanged(ROOT + "/contact/jcr:content");
+        fixture.update();
+
+        // the new page takes the free slot of the first shard
+        assertTrue(shard(0).contains("/contact.html"));
+        assertEquals(2, fixture.getShardCount());
+    }
+
+    @Test
+    void markChangedIgnoresOtherSites() {
+        fixture.update();
+        context.create().page("/content/portfolio/de/de");
+        fixture.markChanged("/content/portfolio/de/de");
+        fixture.update();
+
+        assertEquals(2, fixture.getShardCount());
+    }
+
+    @Test
+    void activateReadsStoredShards() throws IOException {
+        fixture.update();
+
+        // after a restart, the shard no longer needed is still deleted
+        SitemapGeneratorImpl restarted =
+                context.registerInjectActivateService(new SitemapGeneratorImpl(), "shard.size", 2);
+        assertEquals(2, restarted.getShardCount());
+        ResourceResolver resolver = context.resourceResolver();
+        resolver.delete(resolver.getResource(ROOT + "/work"));
+        resolver.commit();
+        restarted.update();
+
+        assertEquals(1, restarted.getShardCount());
+        assertFalse(restarted.writeShard(1, new ByteArrayOutputStream()));
+        assertFalse(index().contains(".sitemap.1.xml"));
+    }
+
+    private String shard(int shard) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(fixture.writeShard(shard, out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String index() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(fixture.writeIndex(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,300 @@
+package com.adobe.aem.portfolio.core.services.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.apache.sling.engine.SlingRequestProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.adobe.aem.portfolio.core.services.ContentTraversal;
+import com.adobe.aem.portfolio.core.services.StaticExporter;
+import com.day.cq.contentsync.handler.util.RequestResponseFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StaticExporterImplTest {
+
+    private static final String HOME = "<html>"
+            + "<link rel=\"stylesheet\" href=\"/etc.clientlibs/portfolio/site.lc-0a1b-lc.min.css\">"
+            + "<img src=\"/content/dam/portfolio/avatar.jpg\"><a href=\"/content/portfolio/en/blog.html\">"
+            + "<a href=\"https://github.com/\"></html>";
+    private static final String CSS = "body { background: url('resources/bg.png'); }";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ContentTraversal contentTraversal;
+
+    @Mock
+    private ResourceResolverFactory resolverFactory;
+
+    @Mock
+    private SlingRequestProcessor requestProcessor;
+
+    @Mock
+    private RequestResponseFactory requestResponseFactory;
+
+    @InjectMocks
+    private StaticExporterImpl fixture;
+
+    private final Map<String, Long> pages = new LinkedHashMap<>();
+    private final Map<String, String> bodies = new HashMap<>();
+    private final Map<String, Integer> renders = new ConcurrentHashMap<>();
+    private final Map<String, Resource> assets = new HashMap<>();
+    private Function<String, String> mapping = Function.identity();
+
+    @BeforeEach
+    void setup() throws Exception {
+        pages.put("/content/portfolio/en", 1000L);
+        pages.put("/content/portfolio/en/blog", 1000L);
+        bodies.put("/content/portfolio/en.html", HOME);
+        bodies.put("/content/portfolio/en/blog.html", "<html>blog</html>");
+        bodies.put("/etc.clientlibs/portfolio/site.lc-0a1b-lc.min.css", CSS);
+        bodies.put("/etc.clientlibs/portfolio/resources/bg.png", "png");
+        bodies.put("/content/dam/portfolio/avatar.jpg", "jpg");
+
+        assets.put("/content/dam/portfolio/avatar.jpg", asset(1000L));
+        when(resolverFactory.getServiceResourceResolver(anyMap())).thenAnswer(invocation -> {
+            ResourceResolver resolver = mock(ResourceResolver.class);
+            when(resolver.map(anyString())).thenAnswer(call -> mapping.apply(call.getArgument(0)));
+            when(resolver.resolve(anyString())).thenAnswer(call -> assets.get(call.<String>getArgument(0)));
+            return resolver;
+        });
+        when(contentTraversal.traverse(eq("/content/portfolio"), any())).thenAnswer(invocation -> {
+            ContentTraversal.Visitor visitor = invocation.getArgument(1);
+            for (Map.Entry<String, Long> page : pages.entrySet()) {
+                visitor.visit(page(page.getKey(), page.getValue()));
+            }
+            return (long) pages.size();
+        });
+        when(contentTraversal.traverse(eq("/content/experience-fragments/portfolio"), any())).thenReturn(0L);
+
+        Map<HttpServletRequest, String> uris = new ConcurrentHashMap<>();
+        Map<HttpServletResponse, OutputStream> outputs = new ConcurrentHashMap<>();
+        Map<HttpServletResponse, Integer> statuses = new ConcurrentHashMap<>();
+        when(requestResponseFactory.createRequest(eq("GET"), anyString())).thenAnswer(invocation -> {
+            HttpServletRequest request = mock(HttpServletRequest.class);
+            uris.put(request, invocation.getArgument(1));
+            return request;
+        });
+        when(requestResponseFactory.createResponse(any())).thenAnswer(invocation -> {
+            HttpServletResponse response = mock(HttpServletResponse.class, call ->
+                    "getStatus".equals(call.getMethod().getName())
+                            ? statuses.getOrDefault(call.getMock(), HttpServletResponse.SC_OK)
+                            : RETURNS_DEFAULTS.answer(call));
+            outputs.put(response, invocation.getArgument(0));
+            return response;
+        });
+        doAnswer(invocation -> {
+            String uri = uris.get(invocation.<HttpServletRequest>getArgument(0));
+            HttpServletResponse response = invocation.getArgument(1);
+            renders.merge(uri, 1, Integer::sum);
+            String body = bodies.get(uri);
+            if (body == null) {
+                statuses.put(response, HttpServletResponse.SC_NOT_FOUND);
+            } else {
+                outputs.get(response).write(body.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }).when(requestProcessor).processRequest(any(), any(), any());
+
+        fixture.open(tempDir, config());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.deactivate();
+    }
+
+    @Test
+    void exportRendersPagesAndReferences() throws LoginException, IOException {
+        StaticExporter.Result result = fixture.export(false);
+
+        assertEquals(2, result.getRendered());
+        assertEquals(3, result.getReferences());
+        assertEquals(0, result.getFailed());
+        assertEquals(HOME, read("content/portfolio/en.html"));
+        assertEquals(CSS, read("etc.clientlibs/portfolio/site.lc-0a1b-lc.min.css"));
+        assertEquals("png", read("etc.clientlibs/portfolio/resources/bg.png"));
+        assertEquals("jpg", read("content/dam/portfolio/avatar.jpg"));
+    }
+
+    @Test
+    void incrementalExportRendersChangedPages() throws LoginException, IOException {
+        fixture.export(true);
+        pages.put("/content/portfolio/en/blog", 2000L);
+        pages.remove("/content/portfolio/en");
+        pages.put("/content/portfolio/en/about", 2000L);
+        bodies.put("/content/portfolio/en/about.html", "<html>about</html>");
+
+        StaticExporter.Result result = fixture.export(true);
+
+        assertEquals(2, result.getRendered());
+        assertEquals(1, result.getRemoved());
+        assertEquals(0, result.getReferences());
+        assertFalse(Files.exists(tempDir.resolve("static/content/portfolio/en.html")));
+        assertEquals("<html>about</html>", read("content/portfolio/en/about.html"));
+        assertEquals(1, renders.get("/etc.clientlibs/portfolio/site.lc-0a1b-lc.min.css").intValue());
+    }
+
+    @Test
+    void fullExportRemovesDeletedPages() throws LoginException, IOException {
+        fixture.export(false);
+        pages.remove("/content/portfolio/en/blog");
+
+        StaticExporter.Result result = fixture.export(false);
+
+        assertEquals(1, result.getRendered());
+        assertEquals(0, result.getUnchanged());
+        assertEquals(1, result.getRemoved());
+        assertFalse(Files.exists(tempDir.resolve("static/content/portfolio/en/blog.html")));
+    }
+
+    @Test
+    void incrementalExportRendersReplacedAssets() throws LoginException, IOException {
+        fixture.export(true);
+        pages.put("/content/portfolio/en", 2000L);
+        assets.put("/content/dam/portfolio/avatar.jpg", asset(2000L));
+        bodies.put("/content/dam/portfolio/avatar.jpg", "new jpg");
+
+        StaticExporter.Result result = fixture.export(true);
+
+        assertEquals(1, result.getReferences());
+        assertEquals("new jpg", read("content/dam/portfolio/avatar.jpg"));
+        assertEquals(1, renders.get("/etc.clientlibs/portfolio/site.lc-0a1b-lc.min.css").intValue());
+    }
+
+    @Test
+    void incrementalExportKeepsUnchangedAssets() throws LoginException, IOException {
+        fixture.export(true);
+        pages.put("/content/portfolio/en", 2000L);
+
+        StaticExporter.Result result = fixture.export(true);
+
+        assertEquals(0, result.getReferences());
+        assertEquals(1, renders.get("/content/dam/portfolio/avatar.jpg").intValue());
+    }
+
+    @Test
+    void exportWritesPagesAtMappedPath() throws LoginException, IOException {
+        mapping = path -> path.replace("/content/portfolio/", "/");
+
+        fixture.export(false);
+
+        assertEquals(HOME, read("en.html"));
+        assertEquals("<html>blog</html>", read("en/blog.html"));
+        assertFalse(Files.exists(tempDir.resolve("static/content/portfolio/en.html")));
+
+        pages.remove("/content/portfolio/en/blog");
+        assertEquals(1, fixture.export(false).getRemoved());
+        assertFalse(Files.exists(tempDir.resolve("static/en/blog.html")));
+    }
+
+    @Test
+    void incrementalExportRetriesFailedPages() throws LoginException, IOException {
+        bodies.remove("/content/portfolio/en/blog.html");
+        assertEquals(1, fixture.export(true).getFailed());
+
+        bodies.put("/content/portfolio/en/blog.html", "<html>blog</html>");
+        StaticExporter.Result result = fixture.export(true);
+
+        assertEquals(1, result.getRendered());
+        assertEquals(1, result.getUnchanged());
+        assertEquals("<html>blog</html>", read("content/portfolio/en/blog.html"));
+    }
+
+    @Test
+    void fileStaysInExportDirectory() {
+        assertEquals(tempDir.resolve("static/content/portfolio/en.html").toAbsolutePath(),
+                fixture.file("/content/portfolio/en.html"));
+        assertNull(fixture.file("/../secret.txt"));
+        assertNull(fixture.file("/content/%2e%2e/%2e%2e/%2e%2e/secret.txt"));
+        assertTrue(fixture.file("/content/dam/portfolio/my%20cv.pdf").endsWith("my cv.pdf"));
+    }
+
+    private String read(String path) throws IOException {
+        return new String(Files.readAllBytes(tempDir.resolve("static").resolve(path)), StandardCharsets.UTF_8);
+    }
+
+    private static Resource page(String path, long lastModified) {
+        Calendar modified = Calendar.getInstance();
+        modified.setTimeInMillis(lastModified);
+        Map<String, Object> contentProperties = new HashMap<>();
+        contentProperties.put("cq:lastModified", modified);
+        Resource content = mock(Resource.class);
+        when(content.getName()).thenReturn("jcr:content");
+        when(content.getValueMap()).thenReturn(new ValueMapDecorator(contentProperties));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jcr:primaryType", "cq:Page");
+        Resource page = mock(Resource.class);
+        when(page.getName()).thenReturn(path.substring(path.lastIndexOf('/') + 1));
+        when(page.getPath()).thenReturn(path);
+        when(page.getValueMap()).thenReturn(new ValueMapDecorator(properties));
+        when(page.getChild("jcr:content")).thenReturn(content);
+        return page;
+    }
+
+    private static Resource asset(long lastModified) {
+        Calendar modified = Calendar.getInstance();
+        modified.setTimeInMillis(lastModified);
+        Resource content = mock(Resource.class);
+        Map<String, Object> properties = Collections.singletonMap("jcr:lastModified", modified);
+        when(content.getValueMap()).thenReturn(new ValueMapDecorator(properties));
+        Resource asset = mock(Resource.class);
+        when(asset.getChild("jcr:content")).thenReturn(content);
+        return asset;
+    }
+
+    private static StaticExporterImpl.Config config() {
+        StaticExporterImpl.Config config = mock(StaticExporterImpl.Config.class);
+        when(config.root_path()).thenReturn("/content/portfolio");
+        when(config.shared_paths()).thenReturn(new String[] { "/content/experience-fragments/portfolio" });
+        when(config.export_directory()).thenReturn("static");
+        when(config.zip_file()).thenReturn("");
+        when(config.parallelism()).thenReturn(2);
+        when(config.reference_prefixes()).thenReturn(new String[] { "/etc.clientlibs/", "/content/dam/" });
+        return config;
+    }
+}
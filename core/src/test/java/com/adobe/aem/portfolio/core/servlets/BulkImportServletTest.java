@@ -0,0 +1,131 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class BulkImportServletTest {
+
+    private static final String SECTION = "/content/portfolio/us/en/jcr:content/root/now";
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private BulkImportServlet fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().resource(SECTION, "sling:resourceType", NowSectionModel.RESOURCE_TYPE);
+        context.create().resource(SECTION + "/experiences/item0", "company", "Existing");
+        context.currentResource(SECTION);
+
+        fixture = context.registerInjectActivateService(new BulkImportServlet());
+    }
+
+    @Test
+    void doPostJson() throws ServletException, IOException {
+        String json = post("{\"experiences\": ["
+                + "{\"company\": \"Adobe\", \"role\": \"Developer\", \"current\": true,"
+                + " \"technologies\": [\"Java\", \"AEM\"]},"
+                + "{\"company\": \"ACME\", \"salary\": 100},"
+                + "{\"role\": \"Intern\"}],"
+                + "\"skillCategories\": [{\"categoryName\": \"Backend\", \"skills\": \"Java, Sling\"}],"
+                + "\"articles\": [{\"title\": \"Not in this section\"}]}",
+                "application/json", params("batchSize", "1"));
+
+        Resource imported = context.resourceResolver().getResource(SECTION + "/experiences/item1");
+        assertEquals("Adobe", imported.getValueMap().get("company", String.class));
+        assertEquals(Boolean.TRUE, imported.getValueMap().get("current", Boolean.class));
+        assertEquals("Java, AEM", imported.getValueMap().get("technologies", String.class));
+        assertNotNull(context.resourceResolver().getResource(SECTION + "/skillCategories/item0"));
+        assertNotNull(context.resourceResolver().getResource(SECTION + "/experiences/item0"));
+        assertNull(context.resourceResolver().getResource(SECTION + "/experiences/item2"));
+
+        assertTrue(json.contains("{\"record\":2,\"collection\":\"experiences\",\"error\":\"Unknown property salary"));
+        assertTrue(json.contains(
+                "{\"record\":3,\"collection\":\"experiences\",\"error\":\"Property company is required\"}"));
+        assertTrue(json.contains("{\"record\":5,\"collection\":\"articles\",\"error\":\"Unknown multifield"));
+        assertTrue(json.contains("\"complete\":true,\"records\":5,\"imported\":2,\"failed\":3,\"batches\":2"));
+    }
+
+    @Test
+    void doPostCsvReplace() throws ServletException, IOException {
+        Map<String, Object> parameters = params("collection", "experiences");
+        parameters.put("replace", "true");
+        String json = post("company,role,current\nAdobe,Developer,true\nACME,Intern,maybe\n", "text/csv", parameters);
+
+        Resource imported = context.resourceResolver().getResource(SECTION + "/experiences/item0");
+        assertEquals("Adobe", imported.getValueMap().get("company", String.class));
+        assertNull(context.resourceResolver().getResource(SECTION + "/experiences/item1"));
+        assertTrue(json.contains("{\"record\":2,\"collection\":\"experiences\","
+                + "\"error\":\"Property current must be true or false\"}"));
+    }
+
+    @Test
+    void doPostMalformedJson() throws ServletException, IOException {
+        String json = post("{\"projects\": [{\"title\": \"Portfolio\"}, {\"title\": ", "application/json",
+                new HashMap<>());
+
+        assertNotNull(context.resourceResolver().getResource(SECTION + "/projects/item0"));
+        assertTrue(json.contains("\"complete\":false,\"records\":2,\"imported\":1,\"failed\":1"));
+    }
+
+    @Test
+    void readCsvRow() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"b, \"\"c\"\"\",\r\n\"multi\nline\"\n"));
+
+        List<String> first = BulkImportServlet.readCsvRow(reader);
+        List<String> second = BulkImportServlet.readCsvRow(reader);
+
+        assertEquals(Arrays.asList("a", "b, \"c\"", ""), first);
+        assertEquals(Arrays.asList("multi\nline"), second);
+        assertNull(BulkImportServlet.readCsvRow(reader));
+    }
+
+    private String post(String body, String contentType, Map<String, Object> parameters)
+            throws ServletException, IOException {
+        MockSlingHttpServletRequest request = context.request();
+        MockSlingHttpServletResponse response = context.response();
+        request.setMethod("POST");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.setContentType(contentType);
+        request.setParameterMap(parameters);
+        context.requestPathInfo().setSelectorString("import");
+        context.requestPathInfo().setExtension("json");
+
+        fixture.doPost(request, response);
+
+        assertEquals(200, response.getStatus());
+        return response.getOutputAsString();
+    }
+
+    private static Map<String, Object> params(String name, String value) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(name, value);
+        return parameters;
+    }
+}
@@ -0,0 +1,84 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.models.CardModel;
+import com.adobe.aem.portfolio.core.models.NowSectionModel;
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.impl.LinkResolverImpl;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class ContentExportServletTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private ContentExportServlet fixture;
+
+    @BeforeEach
+    void setup() {
+        context.addModelsForClasses(NowSectionModel.class, WritingSectionModel.class, CardModel.class);
+        Page page = context.create().page("/content/portfolio/us/en", null, "Home", "brand", "acme");
+        Page about = context.create().page("/content/portfolio/us/en/about", null, "About");
+        context.create().page("/content/portfolio/us/en/about/team", null, "Team");
+        context.create().page("/content/portfolio/us/en/blog", null, "Blog");
+        String root = page.getContentResource().getPath() + "/root";
+        context.create().resource(root + "/now", "sling:resourceType", NowSectionModel.RESOURCE_TYPE,
+                "sectionTitle", "Now");
+        context.create().resource(root + "/now/experiences/item0", "company", "Adobe", "role", "Developer");
+        context.create().resource(root + "/container/card", "sling:resourceType", CardModel.RESOURCE_TYPE,
+                "title", "Portfolio");
+        context.create().resource(about.getContentResource().getPath() + "/root/writing",
+                "sling:resourceType", WritingSectionModel.RESOURCE_TYPE);
+        context.create().resource(about.getContentResource().getPath() + "/root/writing/articles/item0",
+                "title", "Caching experience fragments");
+        context.currentResource(page.adaptTo(Resource.class));
+
+        context.registerInjectActivateService(new LinkResolverImpl());
+        fixture = context.registerInjectActivateService(new ContentExportServlet());
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException {
+        MockSlingHttpServletResponse response = context.response();
+        context.requestPathInfo().setSelectorString("portfolio-export");
+        context.requestPathInfo().setExtension("ndjson");
+
+        fixture.doGet(context.request(), response);
+
+        String[] lines = response.getOutputAsString().split("\n");
+        assertEquals(ContentExportServlet.CONTENT_TYPE + ";charset=UTF-8", response.getContentType());
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("{\"path\":\"/content/portfolio/us/en\",\"title\":\"Home\""));
+        assertTrue(lines[0].contains("\"brand\":\"acme\""));
+        assertTrue(lines[0].contains("\"company\":\"Adobe\""));
+        assertTrue(lines[0].contains("\"cards\":[{\"title\":\"Portfolio\""));
+        assertTrue(lines[1].startsWith("{\"path\":\"/content/portfolio/us/en/about\""));
+        assertTrue(lines[1].contains("\"title\":\"Caching experience fragments\""));
+        assertTrue(lines[2].startsWith("{\"path\":\"/content/portfolio/us/en/about/team\""));
+        assertTrue(lines[3].startsWith("{\"path\":\"/content/portfolio/us/en/blog\""));
+    }
+
+    @Test
+    void doGetNotAPage() throws ServletException, IOException {
+        context.currentResource(context.create().resource("/content/portfolio/us/en/jcr:content/root/text"));
+
+        fixture.doGet(context.request(), context.response());
+
+        assertEquals(404, context.response().getStatus());
+    }
+}
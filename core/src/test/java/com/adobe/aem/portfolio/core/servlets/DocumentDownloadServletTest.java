@@ -0,0 +1,137 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(AemContextExtension.class)
+class DocumentDownloadServletTest {
+
+    private static final String CV = "/content/dam/portfolio/cv.pdf";
+    private static final byte[] CONTENT = "%PDF-1.7 portfolio".getBytes(StandardCharsets.US_ASCII);
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private DocumentDownloadServlet fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().asset(CV, new ByteArrayInputStream(CONTENT), "application/pdf",
+                Collections.singletonMap("dam:sha1", "0123abcd"));
+        context.currentResource(CV);
+        context.requestPathInfo().setSelectorString("portfolio-download.inline");
+        context.requestPathInfo().setExtension("pdf");
+
+        fixture = context.registerInjectActivateService(new DocumentDownloadServlet.AssetServlet());
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException {
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getOutput());
+        assertEquals("application/pdf", response.getContentType());
+        assertEquals("\"0123abcd\"", response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("inline; filename=\"cv.pdf\"", response.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void doGetRange() throws ServletException, IOException {
+        context.request().addHeader("Range", "bytes=1-3");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 1-3/" + CONTENT.length, response.getHeader("Content-Range"));
+        assertEquals("PDF", response.getOutputAsString());
+    }
+
+    @Test
+    void doGetRangeWithChangedIfRange() throws ServletException, IOException {
+        context.request().addHeader("Range", "bytes=1-3");
+        context.request().addHeader("If-Range", "\"4567ef\"");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(CONTENT, response.getOutput());
+    }
+
+    @Test
+    void doGetUnsatisfiableRange() throws ServletException, IOException {
+        context.request().addHeader("Range", "bytes=100-");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */" + CONTENT.length, response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void doGetNotModified() throws ServletException, IOException {
+        context.request().addHeader("If-None-Match", "W/\"0123abcd\"");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getOutput().length);
+    }
+
+    @Test
+    void doGetOutsidePortfolio() throws ServletException, IOException {
+        context.create().asset("/content/dam/other/cv.pdf", new ByteArrayInputStream(CONTENT), "application/pdf",
+                Collections.emptyMap());
+        context.currentResource("/content/dam/other/cv.pdf");
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(context.request(), response);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void parseRange() {
+        assertArrayEquals(new long[] { 90, 99 }, DocumentDownloadServlet.parseRange("bytes=-10", 100));
+        assertArrayEquals(new long[] { 10, 99 }, DocumentDownloadServlet.parseRange("bytes=10-200", 100));
+        assertEquals(0, DocumentDownloadServlet.parseRange("bytes=100-", 100).length);
+        assertNull(DocumentDownloadServlet.parseRange("bytes=0-1,5-6", 100));
+        assertNull(DocumentDownloadServlet.parseRange("bytes=5-1", 100));
+        assertNull(DocumentDownloadServlet.parseRange("items=0-1", 100));
+    }
+
+    @Test
+    void getDownloadPath() {
+        assertEquals(CV + ".portfolio-download.inline.pdf", DocumentDownloadServlet.getDownloadPath(CV, true));
+        assertEquals(CV + ".portfolio-download.pdf", DocumentDownloadServlet.getDownloadPath(CV, false));
+        assertEquals("/content/dam/other/cv.pdf", DocumentDownloadServlet.getDownloadPath(
+                "/content/dam/other/cv.pdf", true));
+        assertEquals("/content/dam/portfolio/cv", DocumentDownloadServlet.getDownloadPath(
+                "/content/dam/portfolio/cv", true));
+        assertEquals("https://example.com/cv.pdf",
+                DocumentDownloadServlet.getDownloadPath("https://example.com/cv.pdf", true));
+    }
+}
@@ -0,0 +1,196 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.Workspace;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.adobe.aem.portfolio.core.services.LinkResolver;
+import com.day.cq.wcm.api.Page;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PagesByBrandServletTest {
+
+    /** The index definition deployed by ui.apps. */
+    private static final Path INDEX =
+            Paths.get("../ui.apps/src/main/content/jcr_root/_oak_index/portfolioBrand-custom-1/.content.xml");
+
+    @Mock
+    private SlingHttpServletRequest request;
+
+    @Mock
+    private SlingHttpServletResponse response;
+
+    @Mock
+    private ResourceResolver resolver;
+
+    @Mock
+    private QueryManager queryManager;
+
+    @Mock
+    private Query query;
+
+    @Mock
+    private LinkResolver linkResolver;
+
+    @InjectMocks
+    private PagesByBrandServlet fixture;
+
+    private final StringWriter output = new StringWriter();
+
+    @BeforeEach
+    void setup() throws IOException, RepositoryException {
+        Resource root = mock(Resource.class);
+        when(root.getPath()).thenReturn("/content/portfolio");
+        when(request.getResource()).thenReturn(root);
+        when(request.getResourceResolver()).thenReturn(resolver);
+        when(request.getParameter("brand")).thenReturn("acme");
+        when(response.getWriter()).thenReturn(new PrintWriter(output));
+
+        Session session = mock(Session.class);
+        Workspace workspace = mock(Workspace.class);
+        ValueFactory valueFactory = mock(ValueFactory.class);
+        when(resolver.adaptTo(Session.class)).thenReturn(session);
+        when(session.getWorkspace()).thenReturn(workspace);
+        when(session.getValueFactory()).thenReturn(valueFactory);
+        when(valueFactory.createValue(anyString())).thenAnswer(invocation -> value(invocation.getArgument(0)));
+        when(workspace.getQueryManager()).thenReturn(queryManager);
+        when(queryManager.createQuery(anyString(), eq(Query.JCR_SQL2))).thenReturn(query);
+        when(linkResolver.resolve(eq(resolver), any(String[].class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException, RepositoryException {
+        when(request.getParameter("offset")).thenReturn("20");
+        when(request.getParameter("limit")).thenReturn("2");
+        rows(row("/content/portfolio/us/en/jcr:content", null),
+                row("/content/portfolio/us/en/about/jcr:content", null),
+                row("/content/portfolio/us/en/blog/jcr:content", null));
+        page("/content/portfolio/us/en", "Home");
+        page("/content/portfolio/us/en/about", "About");
+
+        fixture.doGet(request, response);
+
+        verify(queryManager).createQuery(String.format(PagesByBrandServlet.QUERY, "/content/portfolio"),
+                Query.JCR_SQL2);
+        verify(query).bindValue(eq("brand"), any(Value.class));
+        verify(query).setOffset(20);
+        verify(query).setLimit(3);
+        assertEquals("{\"brand\":\"acme\",\"offset\":20,\"limit\":2,\"hasMore\":true,\"pages\":["
+                + "{\"path\":\"/content/portfolio/us/en\",\"title\":\"Home\",\"url\":\"/content/portfolio/us/en\"},"
+                + "{\"path\":\"/content/portfolio/us/en/about\",\"title\":\"About\","
+                + "\"url\":\"/content/portfolio/us/en/about\"}]}", output.toString());
+    }
+
+    @Test
+    void doGetWithoutBrand() throws ServletException, IOException {
+        when(request.getParameter("brand")).thenReturn(null);
+
+        fixture.doGet(request, response);
+
+        verify(response).sendError(eq(400), anyString());
+    }
+
+    @Test
+    void doGetExplain() throws ServletException, IOException, RepositoryException {
+        when(request.getParameter("explain")).thenReturn("true");
+        rows(row(null, "[cq:PageContent] as [content] /* lucene:portfolioBrand-custom-1 */"));
+
+        fixture.doGet(request, response);
+
+        verify(queryManager).createQuery(
+                "EXPLAIN " + String.format(PagesByBrandServlet.QUERY, "/content/portfolio"), Query.JCR_SQL2);
+        assertTrue(output.toString().contains("\"plan\":\"[cq:PageContent] as [content] /* lucene:portfolioBrand"));
+    }
+
+    /**
+     * The query plan itself is checked against a running instance by
+     * PagesByBrandIT; this checks that the index covers every constraint
+     * and the ordering of the query, so it is not traversed or sorted in memory.
+     */
+    @Test
+    void indexCoversQuery() throws IOException {
+        String index = new String(Files.readAllBytes(INDEX), "UTF-8").replaceAll("\\s+", " ");
+
+        assertTrue(PagesByBrandServlet.QUERY.contains("FROM [cq:PageContent]"));
+        assertTrue(index.contains("<cq:PageContent "));
+        assertTrue(index.contains("queryPaths=\"[/content/portfolio]\""));
+        assertTrue(PagesByBrandServlet.QUERY.contains("content.[brand] = $brand"));
+        assertTrue(index.contains("name=\"brand\" propertyIndex=\"{Boolean}true\""));
+        assertTrue(PagesByBrandServlet.QUERY.contains("ORDER BY content.[cq:lastModified]"));
+        assertTrue(index.contains("name=\"cq:lastModified\" ordered=\"{Boolean}true\""));
+    }
+
+    private void rows(Row... rows) throws RepositoryException {
+        QueryResult result = mock(QueryResult.class);
+        Iterator<Row> iterator = Arrays.asList(rows).iterator();
+        RowIterator rowIterator = mock(RowIterator.class);
+        when(rowIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(rowIterator.nextRow()).thenAnswer(invocation -> iterator.next());
+        when(result.getRows()).thenReturn(rowIterator);
+        when(query.execute()).thenReturn(result);
+    }
+
+    private static Row row(String path, String plan) throws RepositoryException {
+        Row row = mock(Row.class);
+        when(row.getPath()).thenReturn(path);
+        Value value = value(plan);
+        when(row.getValue("plan")).thenReturn(value);
+        return row;
+    }
+
+    private static Value value(String string) throws RepositoryException {
+        Value value = mock(Value.class);
+        when(value.getString()).thenReturn(string);
+        return value;
+    }
+
+    private void page(String path, String title) {
+        Page page = mock(Page.class);
+        when(page.getPath()).thenReturn(path);
+        when(page.getTitle()).thenReturn(title);
+        Resource resource = mock(Resource.class);
+        when(resource.adaptTo(Page.class)).thenReturn(page);
+        when(resolver.getResource(path)).thenReturn(resource);
+    }
+}
@@ -0,0 +1,105 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.util.Calendar;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.models.WritingSectionModel;
+import com.adobe.aem.portfolio.core.services.impl.BrandResolverImpl;
+import com.adobe.aem.portfolio.core.services.impl.LinkResolverImpl;
+import com.adobe.aem.portfolio.core.services.impl.ResourceResolverPoolImpl;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import com.day.cq.wcm.api.Page;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class PortfolioDataServletTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private PortfolioDataServlet fixture;
+
+    @BeforeEach
+    void setup() throws PersistenceException {
+        context.addModelsForClasses(WritingSectionModel.class);
+        context.create().page("/content/portfolio/us", null, "US", "brand", "acme");
+        Page page = context.create().page("/content/portfolio/us/en", null, "Home");
+        context.create().page("/content/portfolio/us/en/about", null, "About");
+        context.create().resource(page.getContentResource().getPath() + "/root/writing",
+                "sling:resourceType", WritingSectionModel.RESOURCE_TYPE);
+        context.create().resource(page.getContentResource().getPath() + "/root/writing/articles/item0",
+                "title", "Caching experience fragments");
+        context.currentResource(page.adaptTo(Resource.class));
+        // brands are read with a resolver of the pool
+        context.resourceResolver().commit();
+
+        context.registerInjectActivateService(new LinkResolverImpl());
+        context.registerInjectActivateService(new ResourceResolverPoolImpl());
+        context.registerInjectActivateService(new BrandResolverImpl());
+        fixture = context.registerInjectActivateService(new PortfolioDataServlet());
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException {
+        MockSlingHttpServletRequest request = context.request();
+        MockSlingHttpServletResponse response = context.response();
+        context.requestPathInfo().setSelectorString("portfolio-data");
+        context.requestPathInfo().setExtension("json");
+
+        fixture.doGet(request, response);
+
+        String json = response.getOutputAsString();
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertTrue(json.contains("\"title\":\"Home\""));
+        assertTrue(json.contains("\"brand\":\"acme\""));
+        assertTrue(json.contains("{\"title\":\"About\",\"url\":\"/content/portfolio/us/en/about.html\"}"));
+        assertTrue(json.contains("\"title\":\"Caching experience fragments\""));
+    }
+
+    @Test
+    void getLastModifiedIncludesChildren() {
+        lastModified("/content/portfolio/us/en", 2020);
+        lastModified("/content/portfolio/us/en/about", 2021);
+
+        assertEquals(2021, fixture.getLastModified(context.request()).get(Calendar.YEAR));
+    }
+
+    @Test
+    void getLastModifiedIncludesBrandSource() {
+        lastModified("/content/portfolio/us/en", 2020);
+        lastModified("/content/portfolio/us", 2022);
+
+        assertEquals(2022, fixture.getLastModified(context.request()).get(Calendar.YEAR));
+    }
+
+    @Test
+    void doGetWithAdditionalSelector() throws ServletException, IOException {
+        context.requestPathInfo().setSelectorString("portfolio-data.1");
+        context.requestPathInfo().setExtension("json");
+
+        fixture.doGet(context.request(), context.response());
+
+        assertEquals(404, context.response().getStatus());
+    }
+
+    private void lastModified(String path, int year) {
+        Calendar date = Calendar.getInstance();
+        date.set(year, Calendar.JANUARY, 1);
+        context.resourceResolver().getResource(path + "/jcr:content").adaptTo(ModifiableValueMap.class)
+                .put("cq:lastModified", date);
+    }
+}
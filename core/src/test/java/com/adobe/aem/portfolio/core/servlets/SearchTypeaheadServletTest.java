@@ -0,0 +1,75 @@
+package com.adobe.aem.portfolio.core.servlets;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import com.adobe.aem.portfolio.core.services.SearchHit;
+import com.adobe.aem.portfolio.core.services.SearchIndex;
+import com.adobe.aem.portfolio.core.testcontext.AppAemContext;
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class SearchTypeaheadServletTest {
+
+    private final AemContext context = AppAemContext.newAemContext();
+
+    private final SearchIndex searchIndex = mock(SearchIndex.class);
+
+    private SearchTypeaheadServlet fixture;
+
+    @BeforeEach
+    void setup() {
+        context.create().page("/content/portfolio/us/en", null, "Home");
+        context.currentResource("/content/portfolio/us/en");
+        context.registerService(SearchIndex.class, searchIndex);
+        fixture = context.registerInjectActivateService(new SearchTypeaheadServlet());
+    }
+
+    @Test
+    void doGet() throws ServletException, IOException {
+        when(searchIndex.search("aem", 10)).thenReturn(Collections.singletonList(
+                new SearchHit("/content/portfolio/us/en", "Home", "/content/portfolio/us/en.html", 1)));
+        MockSlingHttpServletRequest request = context.request();
+        request.setParameterMap(Collections.singletonMap("fulltext", "aem"));
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(request, response);
+
+        assertEquals("[{\"url\":\"/content/portfolio/us/en.html\",\"title\":\"Home\","
+                + "\"path\":\"/content/portfolio/us/en\"}]", response.getOutputAsString());
+    }
+
+    @Test
+    void doGetWithHugeOffset() throws ServletException, IOException {
+        MockSlingHttpServletRequest request = context.request();
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("fulltext", "a");
+        parameters.put("resultsOffset", "2000000000");
+        request.setParameterMap(parameters);
+        MockSlingHttpServletResponse response = context.response();
+
+        fixture.doGet(request, response);
+
+        assertEquals("[]", response.getOutputAsString());
+        verify(searchIndex, never()).search(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,58 @@
+package com.adobe.aem.portfolio.it.tests;
+
+import java.util.Arrays;
+
+import com.adobe.cq.testing.client.CQClient;
+import com.adobe.cq.testing.junit.rules.CQAuthorClassRule;
+import com.adobe.cq.testing.junit.rules.CQRule;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.sling.testing.clients.ClientException;
+import org.apache.sling.testing.clients.SlingHttpResponse;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the query plan of the pages by brand endpoint on the author
+ * instance: the query must be answered by the portfolioBrand index and
+ * never fall back to traversing the content.
+ */
+public class PagesByBrandIT {
+
+    @ClassRule
+    public static final CQAuthorClassRule cqBaseClassRule = new CQAuthorClassRule();
+
+    @Rule
+    public CQRule cqBaseRule = new CQRule(cqBaseClassRule.authorRule);
+
+    static CQClient adminAuthor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        adminAuthor = cqBaseClassRule.authorRule.getAdminClient(CQClient.class);
+    }
+
+    @Test
+    public void testQueryUsesBrandIndex() throws ClientException {
+        SlingHttpResponse response = adminAuthor.doGet("/content/portfolio.portfolio-brand-pages.json",
+                Arrays.asList(new BasicNameValuePair("brand", "acme"), new BasicNameValuePair("explain", "true")),
+                200);
+
+        String plan = response.getContent();
+        assertTrue("Query is not answered by the brand index: " + plan, plan.contains("portfolioBrand-custom"));
+        assertFalse("Query traverses the content: " + plan, plan.contains("traverse"));
+    }
+
+    @Test
+    public void testPagesByBrand() throws ClientException {
+        SlingHttpResponse response = adminAuthor.doGet("/content/portfolio.portfolio-brand-pages.json",
+                Arrays.asList(new BasicNameValuePair("brand", "acme"), new BasicNameValuePair("limit", "5")),
+                200);
+
+        assertTrue(response.getContent().contains("\"pages\":["));
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Lazy Hydration
+ *
+ * Components declare their script through data attributes:
+ *   data-cmp-hydrate="now"                  - hydrator name
+ *   data-cmp-hydrate-src="/etc.clientlibs/…" - script that registers the hydrator
+ *
+ * The script is only fetched when the first component using it scrolls
+ * into view, and each component is hydrated when it becomes visible.
+ * Component scripts register themselves with:
+ *   window.PortfolioHydrate.register('now', function (element) { ... });
+ */
+(function () {
+    'use strict';
+
+    const SELECTOR = '[data-cmp-hydrate]';
+
+    const hydrators = {};
+    const pending = {};
+    const loading = {};
+
+    /**
+     * Registers the hydrate function of a component script
+     * @param {String} name - The hydrator name used in data-cmp-hydrate
+     * @param {Function} hydrate - Called with each component element
+     */
+    function register(name, hydrate) {
+        hydrators[name] = hydrate;
+        (pending[name] || []).forEach(function (resolve) {
+            resolve(hydrate);
+        });
+        delete pending[name];
+    }
+
+    function load(name, src) {
+        if (hydrators[name]) {
+            return Promise.resolve(hydrators[name]);
+        }
+        if (!loading[name]) {
+            loading[name] = new Promise(function (resolve, reject) {
+                (pending[name] = pending[name] || []).push(resolve);
+                const script = document.createElement('script');
+                script.src = src;
+                script.async = true;
+                script.onerror = function (error) {
+                    delete loading[name];
+                    delete pending[name];
+                    reject(error);
+                };
+                document.head.appendChild(script);
+            });
+        }
+        return loading[name];
+    }
+
+    function hydrate(element) {
+        if (element.dataset.cmpHydrated) {
+            return;
+        }
+        element.dataset.cmpHydrated = 'true';
+        load(element.dataset.cmpHydrate, element.dataset.cmpHydrateSrc)
+            .then(function (hydrator) {
+                hydrator(element);
+            })
+            .catch(function () {
+                delete element.dataset.cmpHydrated;
+            });
+    }
+
+    const observer = 'IntersectionObserver' in window ? new IntersectionObserver(function (entries) {
+        entries.forEach(function (entry) {
+            if (entry.isIntersecting) {
+                observer.unobserve(entry.target);
+                hydrate(entry.target);
+            }
+        });
+    }, {
+        rootMargin: '200px 0px'
+    }) : null;
+
+    /**
+     * Observes the not yet hydrated components below a root element
+     * @param {Element} root - Defaults to the document
+     */
+    function scan(root) {
+        (root || document).querySelectorAll(SELECTOR).forEach(function (element) {
+            if (element.dataset.cmpHydrated) {
+                return;
+            }
+            if (observer) {
+                observer.observe(element);
+            } else {
+                hydrate(element);
+            }
+        });
+    }
+
+    window.PortfolioHydrate = {
+        register: register,
+        scan: scan
+    };
+
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', function () {
+            scan();
+        });
+    } else {
+        scan();
+    }
+
+    // Components are re-rendered by the AEM editor
+    if (typeof Granite !== 'undefined' && Granite.author) {
+        Granite.author.on('cq-editor-loaded', function () {
+            scan();
+        });
+    }
+})();
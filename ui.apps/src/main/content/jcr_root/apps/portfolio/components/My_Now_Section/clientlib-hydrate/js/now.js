@@ -1,14 +1,16 @@
 /**
  * Now Section - Experience Accordion
  * 
- * Handles click-to-expand behavior for experience cards
+ * Handles click-to-expand behavior for experience cards.
+ * Loaded on demand by the lazy hydration in portfolio.base
+ * when a Now section scrolls into view.
  */
 
 (function () {
     'use strict';
 
-    function initExperienceAccordion() {
-        const accordionItems = document.querySelectorAll('[data-accordion-item]');
+    function initExperienceAccordion(root) {
+        const accordionItems = root.querySelectorAll('[data-accordion-item]');
 
         accordionItems.forEach(function (item) {
             const trigger = item.querySelector('[data-accordion-trigger]');
@@ -31,15 +33,10 @@
         });
     }
 
-    // Initialize on DOM ready
-    if (document.readyState === 'loading') {
-        document.addEventListener('DOMContentLoaded', initExperienceAccordion);
+    if (window.PortfolioHydrate) {
+        window.PortfolioHydrate.register('now', initExperienceAccordion);
     } else {
-        initExperienceAccordion();
-    }
-
-    // Re-initialize on author mode changes (for AEM editor)
-    if (typeof Granite !== 'undefined' && Granite.author) {
-        Granite.author.on('cq-editor-loaded', initExperienceAccordion);
+        // Loaded without the hydration script: initialize the whole page
+        initExperienceAccordion(document);
     }
 })();
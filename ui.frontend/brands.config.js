@@ -0,0 +1,22 @@
+const fs = require('fs');
+const path = require('path');
+
+const BRANDS_DIR = path.join(__dirname, 'src', 'main', 'webpack', 'brands');
+
+// Config for the brand stylesheets (see `webpack.common.js` and `clientlib.config.js`)
+//
+// Each folder of `src/main/webpack/brands` is a brand: its `_variables.scss`
+// overrides the site variables, and the site stylesheet is compiled once per
+// brand into the `clientlib-site-<brand>` clientlib, category
+// `portfolio.site.<brand>`. The page includes the stylesheet of the brand of
+// the page, see BrandStylesModel. Folder names must be lower case letters,
+// digits and dashes, as the brands are matched in lower case.
+module.exports = {
+  brandsRoot: BRANDS_DIR,
+
+  brands: fs.existsSync(BRANDS_DIR)
+    ? fs.readdirSync(BRANDS_DIR).filter(function (name) {
+        return fs.statSync(path.join(BRANDS_DIR, name)).isDirectory();
+      })
+    : []
+};
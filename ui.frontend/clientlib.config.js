@@ -15,6 +15,7 @@
  ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~*/
 
 const path = require('path');
+const brandsConfig = require('./brands.config.js');
 
 const BUILD_DIR = path.join(__dirname, 'dist');
 const CLIENTLIB_DIR = path.join(
@@ -88,6 +89,25 @@ module.exports = {
           ignore: ['**/*.js', '**/*.css']
         }
       }
-    }
+    },
+
+    // The site stylesheet of each brand, included instead of the one of
+    // `clientlib-site` on the pages of the brand. The scripts and resources
+    // stay in `clientlib-site`.
+    ...brandsConfig.brands.map(function (brand) {
+      return {
+        ...libsBaseConfig,
+        name: 'clientlib-site-' + brand,
+        categories: ['portfolio.site.' + brand],
+        dependencies: ['portfolio.dependencies'],
+        assets: {
+          css: {
+            cwd: 'clientlib-site-' + brand,
+            files: ['**/*.css'],
+            flatten: false
+          }
+        }
+      };
+    })
   ]
 };
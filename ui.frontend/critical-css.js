@@ -0,0 +1,98 @@
+/**
+ * Critical CSS extraction
+ *
+ * Collects the rules for the above-the-fold part of the page template
+ * (see critical.config.js) from the component clientlibs and writes them
+ * into the `portfolio.critical` clientlib, which the page inlines in its
+ * head. The full component stylesheets are then loaded asynchronously.
+ */
+'use strict';
+
+const fs = require('fs');
+const path = require('path');
+const postcss = require('postcss');
+const cssnano = require('cssnano');
+const config = require('./critical.config.js');
+
+const IDENTIFIER_CHAR = /[A-Za-z0-9_-]/;
+
+function matchesSelector(selector) {
+    const trimmed = selector.trim();
+    return config.selectors.some(function (entry) {
+        const family = entry.length > 1 && entry.endsWith('*');
+        const prefix = family ? entry.slice(0, -1) : entry;
+        if (!trimmed.startsWith(prefix)) {
+            return false;
+        }
+        const next = trimmed.charAt(prefix.length);
+        return family || next === '' || !IDENTIFIER_CHAR.test(next);
+    });
+}
+
+function animationNames(rule) {
+    const names = [];
+    rule.walkDecls(/^animation(-name)?$/, function (decl) {
+        decl.value.split(/[\s,]+/).forEach(function (token) {
+            names.push(token);
+        });
+    });
+    return names;
+}
+
+/**
+ * Copies the matching rules of a container into the target container.
+ * @returns the animation names used by the copied rules
+ */
+function extract(container, target) {
+    let animations = [];
+    container.each(function (node) {
+        if (node.type === 'rule') {
+            const selectors = node.selectors.filter(matchesSelector);
+            if (selectors.length) {
+                const copy = node.clone({ selectors: selectors });
+                target.append(copy);
+                animations = animations.concat(animationNames(copy));
+            }
+        } else if (node.type === 'atrule' && /^(media|supports)$/.test(node.name)) {
+            const copy = node.clone({ nodes: [] });
+            animations = animations.concat(extract(node, copy));
+            if (copy.nodes.length) {
+                target.append(copy);
+            }
+        } else if (node.type === 'atrule' && node.name === 'font-face') {
+            target.append(node.clone());
+        }
+    });
+    return animations;
+}
+
+function appendKeyframes(source, target, animations) {
+    source.walkAtRules(/keyframes$/, function (atRule) {
+        if (animations.indexOf(atRule.params.trim()) !== -1) {
+            target.append(atRule.clone());
+        }
+    });
+}
+
+function run() {
+    const critical = postcss.root();
+    config.sources.forEach(function (source) {
+        const file = path.join(config.appsRoot, source);
+        const root = postcss.parse(fs.readFileSync(file, 'utf8'), { from: file });
+        appendKeyframes(root, critical, extract(root, critical));
+    });
+
+    const output = path.join(config.appsRoot, config.output);
+    return postcss([cssnano()])
+        .process(critical, { from: undefined, to: output })
+        .then(function (result) {
+            fs.mkdirSync(path.dirname(output), { recursive: true });
+            fs.writeFileSync(output, result.css);
+            console.log('critical css: ' + result.css.length + ' bytes written to ' + output);
+        });
+}
+
+run().catch(function (error) {
+    console.error(error);
+    process.exit(1);
+});
@@ -0,0 +1,44 @@
+const path = require('path');
+
+const APPS_DIR = path.join(
+  __dirname,
+  '..',
+  'ui.apps',
+  'src',
+  'main',
+  'content',
+  'jcr_root',
+  'apps',
+  'portfolio'
+);
+
+// Config for `critical-css.js`
+module.exports = {
+  appsRoot: APPS_DIR,
+
+  // Stylesheets of the components rendered above the fold, in cascade order
+  sources: [
+    'clientlibs/clientlib-base/css/theme.css',
+    'components/My_Portfolio_Header/clientlib/css/header.css',
+    'components/My_Now_Section/clientlib/css/now.css'
+  ],
+
+  // Selectors kept in the critical CSS. A trailing `*` also keeps the BEM
+  // elements and modifiers of the block (e.g. `.portfolio-header__logo`).
+  selectors: [
+    '*',
+    ':root',
+    'html',
+    'body',
+    '.portfolio-header*',
+    '.now-section',
+    '.now-section__title',
+    '.now-section__divider',
+    '.now-section__profile',
+    '.now-section__summary',
+    '.now-section__cv-button',
+    '.now-section__cv-icon'
+  ],
+
+  output: 'clientlibs/clientlib-critical/css/critical.css'
+};
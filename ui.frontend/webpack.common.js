@@ -6,9 +6,25 @@ const TSConfigPathsPlugin = require('tsconfig-paths-webpack-plugin');
 const CopyWebpackPlugin = require('copy-webpack-plugin');
 const { CleanWebpackPlugin } = require('clean-webpack-plugin');
 const ESLintPlugin = require('eslint-webpack-plugin');
+const brandsConfig = require('./brands.config.js');
 
 const SOURCE_ROOT = __dirname + '/src/main/webpack';
 
+// One site stylesheet per brand, compiled with the variables of the brand (see brands.config.js)
+const brandEntries = {};
+brandsConfig.brands.forEach(function (brand) {
+    brandEntries['site-' + brand] = SOURCE_ROOT + '/site/main.scss?brand=' + brand;
+});
+
+function brandVariables(content, loaderContext) {
+    const brand = new URLSearchParams(loaderContext.resourceQuery).get('brand');
+    if (!brand) {
+        return content;
+    }
+    const variables = path.join(brandsConfig.brandsRoot, brand, 'variables').replace(/\\/g, '/');
+    return '@import "' + variables + '";\n' + content;
+}
+
 const resolve = {
     extensions: ['.js', '.ts'],
     plugins: [new TSConfigPathsPlugin({
@@ -19,10 +35,15 @@ const resolve = {
 module.exports = {
     resolve: resolve,
     entry: {
-        site: SOURCE_ROOT + '/site/main.ts'
+        site: SOURCE_ROOT + '/site/main.ts',
+        ...brandEntries
     },
     output: {
         filename: (chunkData) => {
+            if (brandEntries[chunkData.chunk.name]) {
+                // brand entries only have a stylesheet, their empty script is not copied to the clientlib
+                return 'clientlib-[name]/[name].js';
+            }
             return chunkData.chunk.name === 'dependencies' ? 'clientlib-dependencies/[name].js' : 'clientlib-site/[name].js';
         },
         path: path.resolve(__dirname, 'dist')
@@ -66,6 +87,9 @@ module.exports = {
                     },
                     {
                         loader: 'sass-loader',
+                        options: {
+                            additionalData: brandVariables
+                        }
                     },
                     {
                         loader: 'glob-import-loader',